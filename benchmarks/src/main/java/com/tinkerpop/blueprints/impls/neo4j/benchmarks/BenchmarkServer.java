@@ -0,0 +1,54 @@
+package com.tinkerpop.blueprints.impls.neo4j.benchmarks;
+
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import org.apache.commons.configuration.Configuration;
+import org.apache.commons.configuration.PropertiesConfiguration;
+import org.neo4j.dbms.DatabaseManagementSystemSettings;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.harness.ServerControls;
+import org.neo4j.harness.TestServerBuilders;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process Neo4j server for a benchmark trial, the same harness the tests run against through {@code Neo4jRule}.
+ */
+public class BenchmarkServer implements AutoCloseable {
+
+    private final ServerControls server = TestServerBuilders.newInProcessBuilder().newServer();
+
+    /**
+     * Opens a graph on the server.
+     *
+     * @param settings alternating keys, without the {@code blueprints.neo4j.} prefix, and values
+     */
+    public Neo4jGraph open(Object... settings) {
+        Configuration config = new PropertiesConfiguration();
+        config.setProperty("blueprints.neo4j.url", server.boltURI().toString());
+        config.setProperty("blueprints.neo4j.certFile", certFile().toString());
+        for (int i = 0; i < settings.length; i += 2) {
+            config.setProperty("blueprints.neo4j." + settings[i], settings[i + 1]);
+        }
+        return new Neo4jGraph(config);
+    }
+
+    public void awaitIndexes() {
+        try (Transaction tx = server.graph().beginTx()) {
+            server.graph().schema().awaitIndexesOnline(1, TimeUnit.MINUTES);
+            tx.success();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.close();
+    }
+
+    // Each server has a new certificate, so trust it explicitly rather than on first use
+    private File certFile() {
+        File dataDirectory = server.config().get(DatabaseManagementSystemSettings.data_directory);
+        return new File(dataDirectory, "databases/graph.db/certificates/neo4j.cert");
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.tinkerpop.blueprints.impls.neo4j.benchmarks;
+
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jBulkLoader;
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The chain of {@link IngestBenchmark} loaded through {@link Neo4jBulkLoader}. Scores are per vertex/edge pair.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class BulkLoadBenchmark {
+
+    private static final int BATCH = 100000;
+
+    private BenchmarkServer server;
+    private Neo4jGraph graph;
+    private long nextKey;
+
+    @Setup
+    public void setUp() {
+        server = new BenchmarkServer();
+        graph = server.open();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public long load() {
+        long first = nextKey;
+        try (Neo4jBulkLoader loader = new Neo4jBulkLoader(graph)) {
+            for (int i = 0; i < BATCH; i++) {
+                Map<String, Object> properties = new HashMap<>();
+                for (int j = 0; j < 10; j++) {
+                    properties.put("prop" + j, j);
+                }
+                loader.addVertex(nextKey++, properties);
+            }
+            for (long key = first + 1; key < nextKey; key++) {
+                loader.addEdge(key - 1, key, "NEXT", null);
+            }
+            return loader.getEdgeCount();
+        }
+    }
+
+}
@@ -0,0 +1,99 @@
+package com.tinkerpop.blueprints.impls.neo4j.benchmarks;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-element create, read, update and delete, each committed on its own.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CrudBenchmark {
+
+    private BenchmarkServer server;
+    private Neo4jGraph graph;
+    private Vertex vertex;
+    private Object vertexId;
+    private int counter;
+
+    @Setup
+    public void setUp() {
+        server = new BenchmarkServer();
+        graph = server.open();
+        vertex = graph.addVertex(null);
+        for (int i = 0; i < 10; i++) {
+            vertex.setProperty("prop" + i, i);
+        }
+        graph.commit();
+        vertexId = vertex.getId();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public Object addVertex() {
+        Vertex added = graph.addVertex(null);
+        added.setProperty("prop", counter++);
+        graph.commit();
+        return added.getId();
+    }
+
+    @Benchmark
+    public Edge addEdge() {
+        Edge edge = graph.addEdge(null, vertex, graph.addVertex(null), "CRUD");
+        graph.commit();
+        return edge;
+    }
+
+    @Benchmark
+    public Object getVertex() {
+        Object value = graph.getVertex(vertexId).getProperty("prop0");
+        graph.commit();
+        return value;
+    }
+
+    @Benchmark
+    public void setProperty() {
+        vertex.setProperty("counter", counter++);
+        graph.commit();
+    }
+
+    @Benchmark
+    public void addAndRemoveVertex() {
+        Vertex added = graph.addVertex(null);
+        graph.commit();
+        graph.removeVertex(added);
+        graph.commit();
+    }
+
+    @Benchmark
+    public Vertex addAndFollowEdge() {
+        Edge edge = graph.addEdge(null, vertex, graph.addVertex(null), "FOLLOW");
+        graph.commit();
+        return edge.getVertex(Direction.OUT);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.tinkerpop.blueprints.impls.neo4j.benchmarks;
+
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingest of a chain of vertices with ten properties each, committed once per batch. Scores are per vertex/edge pair.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class IngestBenchmark {
+
+    private static final int BATCH = 1000;
+
+    @Param({"false", "true"})
+    public boolean writeBehind;
+
+    private BenchmarkServer server;
+    private Neo4jGraph graph;
+
+    @Setup
+    public void setUp() {
+        server = new BenchmarkServer();
+        graph = server.open("writeBehind", writeBehind);
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void ingest() {
+        Vertex last = null;
+        for (int i = 0; i < BATCH; i++) {
+            Vertex vertex = graph.addVertex(null);
+            for (int j = 0; j < 10; j++) {
+                vertex.setProperty("prop" + j, j);
+            }
+            if (last != null) {
+                graph.addEdge(null, last, vertex, "NEXT");
+            }
+            last = vertex;
+        }
+        graph.commit();
+    }
+
+}
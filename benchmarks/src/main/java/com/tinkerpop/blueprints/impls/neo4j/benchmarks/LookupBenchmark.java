@@ -0,0 +1,61 @@
+package com.tinkerpop.blueprints.impls.neo4j.benchmarks;
+
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Equality lookups on an indexed vertex key.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LookupBenchmark {
+
+    private static final int SIZE = 10000;
+
+    private BenchmarkServer server;
+    private Neo4jGraph graph;
+
+    @Setup
+    public void setUp() {
+        server = new BenchmarkServer();
+        graph = server.open("writeBehind", true);
+        graph.createKeyIndex("key", Vertex.class);
+        for (int i = 0; i < SIZE; i++) {
+            graph.addVertex(null).setProperty("key", i);
+        }
+        graph.commit();
+        server.awaitIndexes();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public Vertex lookup() {
+        Vertex vertex = graph.getVertices("key", ThreadLocalRandom.current().nextInt(SIZE)).iterator().next();
+        graph.commit();
+        return vertex;
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.tinkerpop.blueprints.impls.neo4j.benchmarks;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Many threads sharing one graph with thread-bound transactions, mostly reading and expanding vertices and
+ * occasionally adding an edge.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(16)
+public class MixedBenchmark {
+
+    private static final int SIZE = 10000;
+
+    private BenchmarkServer server;
+    private Neo4jGraph graph;
+    private final List<Object> ids = new ArrayList<>(SIZE);
+
+    @Setup
+    public void setUp() {
+        server = new BenchmarkServer();
+        graph = server.open("threadBoundTransactions", true);
+        Neo4jGraph loader = server.open("writeBehind", true);
+        List<Vertex> vertices = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            Vertex vertex = loader.addVertex(null);
+            vertex.setProperty("prop", i);
+            vertices.add(vertex);
+        }
+        loader.commit();
+        vertices.forEach(vertex -> ids.add(vertex.getId()));
+        loader.shutdown();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public int mixed() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        Vertex vertex = graph.getVertex(ids.get(random.nextInt(SIZE)));
+        int result;
+        int operation = random.nextInt(10);
+        if (operation < 6) {
+            result = vertex.<Long>getProperty("prop").intValue();
+        } else if (operation < 9) {
+            result = 0;
+            for (Vertex ignored : vertex.getVertices(Direction.OUT, "MIXED")) {
+                result++;
+            }
+        } else {
+            graph.addEdge(null, vertex, graph.getVertex(ids.get(random.nextInt(SIZE))), "MIXED");
+            result = -1;
+        }
+        graph.commit();
+        return result;
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.tinkerpop.blueprints.impls.neo4j.benchmarks;
+
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full vertex scans, streamed in the graph's transaction, paged or split across sessions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class ScanBenchmark {
+
+    private static final int SIZE = 100000;
+
+    @Param({"stream", "paged", "parallel"})
+    public String scan;
+
+    private BenchmarkServer server;
+    private Neo4jGraph graph;
+
+    @Setup
+    public void setUp() {
+        server = new BenchmarkServer();
+        graph = server.open("writeBehind", true, "scanPageSize", "paged".equals(scan) ? 10000 : 0);
+        for (int i = 0; i < SIZE; i++) {
+            graph.addVertex(null).setProperty("prop", i);
+        }
+        graph.commit();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public long scan() {
+        if ("parallel".equals(scan)) {
+            return graph.parallelVertices().count();
+        }
+        long count = 0;
+        for (Vertex vertex : graph.getVertices()) {
+            count++;
+        }
+        graph.commit();
+        return count;
+    }
+
+}
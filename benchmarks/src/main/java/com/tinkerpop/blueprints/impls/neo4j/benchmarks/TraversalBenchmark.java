@@ -0,0 +1,101 @@
+package com.tinkerpop.blueprints.impls.neo4j.benchmarks;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jVertex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Walking a chain edge by edge or as one traversal, and expanding a vertex with many neighbours.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TraversalBenchmark {
+
+    private static final int LENGTH = 100;
+
+    @Param({"false", "true"})
+    public boolean prefetchAdjacent;
+
+    private BenchmarkServer server;
+    private Neo4jGraph graph;
+    private Object chainStart;
+    private Object hub;
+
+    @Setup
+    public void setUp() {
+        server = new BenchmarkServer();
+        graph = server.open("prefetchAdjacent", prefetchAdjacent, "writeBehind", true);
+        Vertex last = graph.addVertex(null);
+        chainStart = last.getId();
+        Vertex center = graph.addVertex(null);
+        hub = center.getId();
+        for (int i = 1; i < LENGTH; i++) {
+            Vertex next = graph.addVertex(null);
+            graph.addEdge(null, last, next, "NEXT");
+            last = next;
+            Vertex leaf = graph.addVertex(null);
+            leaf.setProperty("leaf", i);
+            graph.addEdge(null, center, leaf, "LEAF");
+        }
+        graph.commit();
+    }
+
+    @TearDown
+    public void tearDown() {
+        graph.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public int chain() {
+        int count = 1;
+        Vertex vertex = graph.getVertex(chainStart);
+        while (vertex != null) {
+            Iterator<Edge> edges = vertex.getEdges(Direction.OUT, "NEXT").iterator();
+            vertex = edges.hasNext() ? edges.next().getVertex(Direction.OUT) : null;
+            count++;
+        }
+        graph.commit();
+        return count;
+    }
+
+    @Benchmark
+    public Object chainTraversal() {
+        Neo4jVertex start = (Neo4jVertex) graph.getVertex(chainStart);
+        Object end = start.traverse().out("NEXT").times(LENGTH - 1).vertices().iterator().next().getId();
+        graph.commit();
+        return end;
+    }
+
+    @Benchmark
+    public long fanOut() {
+        long sum = 0;
+        for (Edge edge : graph.getVertex(hub).getEdges(Direction.OUT, "LEAF")) {
+            sum += edge.getVertex(Direction.OUT).<Long>getProperty("leaf");
+        }
+        graph.commit();
+        return sum;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Element;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Size-bounded identity map from element id to element, evicting the least recently used entry. A capacity of zero
+ * disables caching.
+ */
+public class ElementCache<T extends Element> {
+
+    private final int capacity;
+    private final LinkedHashMap<Long, T> elements;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public ElementCache(final int capacity) {
+        this.capacity = capacity;
+        this.elements = new LinkedHashMap<Long, T>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, T> eldest) {
+                if (size() > capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public boolean isEnabled() {
+        return capacity > 0;
+    }
+
+    /**
+     * Looks up an element, counting the hit or miss.
+     */
+    public T get(long id) {
+        if (!isEnabled()) {
+            return null;
+        }
+        T element = elements.get(id);
+        if (element == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return element;
+    }
+
+    /**
+     * Looks up an element without affecting the hit and miss counters.
+     */
+    public T peek(long id) {
+        return isEnabled() ? elements.get(id) : null;
+    }
+
+    public void put(long id, T element) {
+        if (isEnabled() && id != Neo4jElement.UNSAVED_ID) {
+            elements.put(id, element);
+        }
+    }
+
+    public void remove(long id) {
+        elements.remove(id);
+    }
+
+    public void removeIf(Predicate<? super T> predicate) {
+        Iterator<T> iterator = elements.values().iterator();
+        while (iterator.hasNext()) {
+            if (predicate.test(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    public void clear() {
+        elements.clear();
+    }
+
+    public int size() {
+        return elements.size();
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+}
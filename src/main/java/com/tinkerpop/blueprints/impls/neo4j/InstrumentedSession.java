@@ -0,0 +1,70 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Statement;
+import org.neo4j.driver.v1.StatementResult;
+import org.neo4j.driver.v1.StatementRunner;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.types.TypeSystem;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Session runner reporting each autocommit statement to the graph's listeners, and to its transaction context, once it
+ * has been read, consumed or has failed. Statements left unread are not reported, as no transaction close accounts
+ * for them.
+ */
+class InstrumentedSession implements StatementRunner {
+
+    private final StatementRunner session;
+    private final StatementListeners listeners;
+    private final Runnable onRun;
+    private final Runnable onComplete;
+
+    InstrumentedSession(StatementRunner session, StatementListeners listeners, Runnable onRun, Runnable onComplete) {
+        this.session = session;
+        this.listeners = listeners;
+        this.onRun = onRun;
+        this.onComplete = onComplete;
+    }
+
+    @Override
+    public StatementResult run(String statement, Value parameters) {
+        return run(new Statement(statement, parameters));
+    }
+
+    @Override
+    public StatementResult run(String statement, Map<String, Object> parameters) {
+        return run(new Statement(statement, parameters));
+    }
+
+    @Override
+    public StatementResult run(String statement, Record parameters) {
+        return run(new Statement(statement, parameters.asMap()));
+    }
+
+    @Override
+    public StatementResult run(String statement) {
+        return run(new Statement(statement));
+    }
+
+    @Override
+    public StatementResult run(Statement statement) {
+        onRun.run();
+        StatementResult result;
+        try {
+            result = session.run(statement);
+        } catch (RuntimeException ex) {
+            onComplete.run();
+            throw ex;
+        }
+        return new InstrumentedTransaction.InstrumentedResult(statement.text(), statement.parameters().asMap(), result, listeners, null, onComplete);
+    }
+
+    @Override
+    public TypeSystem typeSystem() {
+        return session.typeSystem();
+    }
+
+}
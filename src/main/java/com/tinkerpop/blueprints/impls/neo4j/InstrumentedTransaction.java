@@ -0,0 +1,243 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Statement;
+import org.neo4j.driver.v1.StatementResult;
+import org.neo4j.driver.v1.Transaction;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.summary.ResultSummary;
+import org.neo4j.driver.v1.types.TypeSystem;
+import org.neo4j.driver.v1.util.Function;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Transaction reporting each statement and itself to the graph's listeners. Runs are lazy, so a statement is timed
+ * from being sent until its last row is read, or until the transaction closes for results left unread. The driver
+ * does not expose the bytes exchanged, only rows are counted.
+ */
+class InstrumentedTransaction implements Transaction {
+
+    private final Transaction tx;
+    private final StatementListeners listeners;
+    private final long start = System.nanoTime();
+    private final Set<InstrumentedResult> open = new HashSet<>();
+    private int statements;
+    private boolean success;
+    private boolean failure;
+
+    InstrumentedTransaction(Transaction tx, StatementListeners listeners) {
+        this.tx = tx;
+        this.listeners = listeners;
+    }
+
+    @Override
+    public StatementResult run(String statement, Value parameters) {
+        return track(statement, parameters.asMap(), tx.run(statement, parameters));
+    }
+
+    @Override
+    public StatementResult run(String statement, Map<String, Object> parameters) {
+        return track(statement, parameters, tx.run(statement, parameters));
+    }
+
+    @Override
+    public StatementResult run(String statement, Record parameters) {
+        return track(statement, parameters.asMap(), tx.run(statement, parameters));
+    }
+
+    @Override
+    public StatementResult run(String statement) {
+        return track(statement, Collections.emptyMap(), tx.run(statement));
+    }
+
+    @Override
+    public StatementResult run(Statement statement) {
+        return track(statement.text(), statement.parameters().asMap(), tx.run(statement));
+    }
+
+    @Override
+    public TypeSystem typeSystem() {
+        return tx.typeSystem();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return tx.isOpen();
+    }
+
+    @Override
+    public void success() {
+        success = true;
+        tx.success();
+    }
+
+    @Override
+    public void failure() {
+        failure = true;
+        tx.failure();
+    }
+
+    @Override
+    public void close() {
+        RuntimeException error = null;
+        try {
+            tx.close();
+        } catch (RuntimeException ex) {
+            error = ex;
+            throw ex;
+        } finally {
+            for (InstrumentedResult result : open.toArray(new InstrumentedResult[0])) {
+                result.complete(error);
+            }
+            listeners.transactionCompleted(error == null && success && !failure, System.nanoTime() - start, statements);
+        }
+    }
+
+    private StatementResult track(String statement, Map<String, Object> parameters, StatementResult result) {
+        statements++;
+        InstrumentedResult tracked = new InstrumentedResult(statement, parameters, result, listeners, open, null);
+        open.add(tracked);
+        return tracked;
+    }
+
+    /**
+     * Result reporting its statement once it has been read, failed or, when it belongs to a transaction, the
+     * transaction has closed.
+     */
+    static class InstrumentedResult implements StatementResult {
+        private final String statement;
+        private final Map<String, Object> parameters;
+        private final StatementResult result;
+        private final StatementListeners listeners;
+        private final Set<InstrumentedResult> open;
+        private final Runnable onComplete;
+        private final long sent = System.nanoTime();
+        private long rows;
+        private boolean done;
+
+        /**
+         * @param open       the unread results of the transaction, or null for an autocommit statement
+         * @param onComplete run once the result has been read or has failed, or null
+         */
+        InstrumentedResult(String statement, Map<String, Object> parameters, StatementResult result,
+                           StatementListeners listeners, Set<InstrumentedResult> open, Runnable onComplete) {
+            this.statement = statement;
+            this.parameters = parameters;
+            this.result = result;
+            this.listeners = listeners;
+            this.open = open;
+            this.onComplete = onComplete;
+        }
+
+        void complete(Throwable error) {
+            if (!done) {
+                done = true;
+                if (open != null) {
+                    open.remove(this);
+                }
+                listeners.statementCompleted(statement, parameters, System.nanoTime() - sent, rows, error);
+                if (onComplete != null) {
+                    onComplete.run();
+                }
+            }
+        }
+
+        @Override
+        public List<String> keys() {
+            return result.keys();
+        }
+
+        @Override
+        public boolean hasNext() {
+            try {
+                boolean hasNext = result.hasNext();
+                if (!hasNext) {
+                    complete(null);
+                }
+                return hasNext;
+            } catch (RuntimeException ex) {
+                complete(ex);
+                throw ex;
+            }
+        }
+
+        @Override
+        public Record next() {
+            try {
+                Record record = result.next();
+                rows++;
+                return record;
+            } catch (RuntimeException ex) {
+                complete(ex);
+                throw ex;
+            }
+        }
+
+        @Override
+        public Record single() {
+            try {
+                Record record = result.single();
+                rows++;
+                complete(null);
+                return record;
+            } catch (RuntimeException ex) {
+                complete(ex);
+                throw ex;
+            }
+        }
+
+        @Override
+        public Record peek() {
+            try {
+                return result.peek();
+            } catch (RuntimeException ex) {
+                complete(ex);
+                throw ex;
+            }
+        }
+
+        @Override
+        public List<Record> list() {
+            try {
+                List<Record> records = result.list();
+                rows += records.size();
+                complete(null);
+                return records;
+            } catch (RuntimeException ex) {
+                complete(ex);
+                throw ex;
+            }
+        }
+
+        @Override
+        public <T> List<T> list(Function<Record, T> mapFunction) {
+            try {
+                List<T> records = result.list(mapFunction);
+                rows += records.size();
+                complete(null);
+                return records;
+            } catch (RuntimeException ex) {
+                complete(ex);
+                throw ex;
+            }
+        }
+
+        @Override
+        public ResultSummary consume() {
+            try {
+                ResultSummary summary = result.consume();
+                complete(null);
+                return summary;
+            } catch (RuntimeException ex) {
+                complete(ex);
+                throw ex;
+            }
+        }
+    }
+
+}
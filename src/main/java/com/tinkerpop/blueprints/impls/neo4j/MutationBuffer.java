@@ -0,0 +1,284 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Vertex;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalRelationship;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.StatementResult;
+import org.neo4j.driver.v1.Transaction;
+import org.neo4j.driver.v1.Values;
+import org.neo4j.driver.v1.types.Node;
+import org.neo4j.driver.v1.types.Relationship;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Write-behind buffer for the mutations of a single transaction. Elements apply their changes locally and record
+ * them here; the buffer later sends them to the server as a handful of {@code UNWIND} statements.
+ */
+class MutationBuffer {
+
+    private static class PendingEdge {
+        final Neo4jEdge edge;
+        final Vertex outVertex;
+        final Vertex inVertex;
+
+        PendingEdge(Neo4jEdge edge, Vertex outVertex, Vertex inVertex) {
+            this.edge = edge;
+            this.outVertex = outVertex;
+            this.inVertex = inVertex;
+        }
+    }
+
+    private static class LabelChange {
+        final Neo4jVertex vertex;
+        final String label;
+        final boolean add;
+
+        LabelChange(Neo4jVertex vertex, String label, boolean add) {
+            this.vertex = vertex;
+            this.label = label;
+            this.add = add;
+        }
+    }
+
+    private final int batchSize;
+    // The indexed edge keys of the graph, whose changes are also written to the edge index nodes
+    private final Set<String> edgeIndices;
+
+    private final List<Neo4jVertex> newVertices = new ArrayList<>();
+    private final List<PendingEdge> newEdges = new ArrayList<>();
+    // Keyed by element id so that several wrappers of the same element keep their relative ordering
+    private final Map<Long, Map<String, Object>> vertexProperties = new LinkedHashMap<>();
+    private final Map<Long, Map<String, Object>> edgeProperties = new LinkedHashMap<>();
+    // In call order, as adding and removing the same label must keep their order
+    private final List<LabelChange> labelChanges = new ArrayList<>();
+    private int size;
+
+    MutationBuffer(int batchSize, Set<String> edgeIndices) {
+        this.batchSize = batchSize;
+        this.edgeIndices = edgeIndices;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    boolean isFull() {
+        return size >= batchSize;
+    }
+
+    void addVertex(Neo4jVertex vertex) {
+        newVertices.add(vertex);
+        size++;
+    }
+
+    void addEdge(Neo4jEdge edge, Vertex outVertex, Vertex inVertex) {
+        newEdges.add(new PendingEdge(edge, outVertex, inVertex));
+        size++;
+    }
+
+    /**
+     * Records a property change; a null value records a removal. Unsaved elements carry their properties in their
+     * raw element and are written in full when created, so nothing needs recording for them.
+     */
+    void setProperty(Neo4jVertex vertex, String key, Object value) {
+        record(vertexProperties, vertex.getRawElement().id(), key, value);
+    }
+
+    void setProperty(Neo4jEdge edge, String key, Object value) {
+        record(edgeProperties, edge.getRawElement().id(), key, value);
+    }
+
+    void addLabel(Neo4jVertex vertex, String label) {
+        labelChanges.add(new LabelChange(vertex, label, true));
+        size++;
+    }
+
+    void removeLabel(Neo4jVertex vertex, String label) {
+        labelChanges.add(new LabelChange(vertex, label, false));
+        size++;
+    }
+
+    void clear() {
+        newVertices.clear();
+        newEdges.clear();
+        vertexProperties.clear();
+        edgeProperties.clear();
+        labelChanges.clear();
+        size = 0;
+    }
+
+    /**
+     * Sends all pending mutations through the given transaction and assigns server ids to the new elements.
+     *
+     * @return the elements that were created
+     */
+    List<Neo4jElement<?>> flush(Transaction tx) {
+        List<Neo4jElement<?>> created = new ArrayList<>(newVertices.size() + newEdges.size());
+        if (!newVertices.isEmpty()) {
+            createVertices(tx);
+            created.addAll(newVertices);
+        }
+
+        // Everything below is pipelined, only reading the edge ids forces a round trip
+        Map<String, List<PendingEdge>> edgesByLabel = newEdges.stream()
+                .collect(Collectors.groupingBy(pending -> pending.edge.getRawElement().type(), LinkedHashMap::new, Collectors.toList()));
+        List<StatementResult> edgeResults = new ArrayList<>(edgesByLabel.size());
+        edgesByLabel.forEach((label, edges) -> edgeResults.add(createEdges(tx, label, edges)));
+
+        if (!vertexProperties.isEmpty()) {
+            tx.run(Statements.SET_VERTEX_PROPERTIES_BATCH, Values.parameters("rows", propertyRows(vertexProperties)));
+        }
+        if (!edgeProperties.isEmpty()) {
+            tx.run(Statements.SET_EDGE_PROPERTIES_BATCH, Values.parameters("rows", propertyRows(edgeProperties)));
+        }
+        writeLabels(tx);
+
+        List<Object> indexRows = new ArrayList<>();
+        List<Object> unindexRows = new ArrayList<>();
+        int group = 0;
+        for (List<PendingEdge> edges : edgesByLabel.values()) {
+            for (Record record : edgeResults.get(group++).list()) {
+                PendingEdge pending = edges.get(record.get(0).asInt());
+                Relationship relationship = pending.edge.getRawElement();
+                pending.edge.rawElement = new InternalRelationship(record.get(1).asLong(), idOf(pending.outVertex),
+                        idOf(pending.inVertex), relationship.type(), relationship.asMap(v -> Values.value(v)));
+                created.add(pending.edge);
+                addIndexRow(indexRows, unindexRows, record.get(1).asLong(), relationship.asMap());
+            }
+        }
+        edgeProperties.forEach((id, properties) -> addIndexRow(indexRows, unindexRows, id, properties));
+        if (!indexRows.isEmpty()) {
+            tx.run(Statements.INDEX_EDGES_BATCH, Values.parameters("rows", indexRows));
+        }
+        if (!unindexRows.isEmpty()) {
+            tx.run(Statements.UNINDEX_EDGES_BATCH, Values.parameters("rows", unindexRows));
+        }
+
+        clear();
+        return created;
+    }
+
+    private void createVertices(Transaction tx) {
+        List<Object> rows = new ArrayList<>(newVertices.size());
+        for (int i = 0; i < newVertices.size(); i++) {
+            rows.add(row(i, newVertices.get(i).getRawElement().asMap()));
+        }
+        StatementResult result = tx.run(Statements.CREATE_VERTEX_BATCH, Values.parameters("rows", rows));
+        for (Record record : result.list()) {
+            Neo4jVertex vertex = newVertices.get(record.get(0).asInt());
+            Node node = vertex.getRawElement();
+            List<String> labels = StreamSupport.stream(node.labels().spliterator(), false).collect(Collectors.toList());
+            vertex.rawElement = new InternalNode(record.get(1).asLong(), labels, node.asMap(v -> Values.value(v)));
+        }
+    }
+
+    /**
+     * Sends the last change of each label on each vertex. New vertices have their ids by now.
+     */
+    private void writeLabels(Transaction tx) {
+        Map<String, Map<Long, Boolean>> changes = new LinkedHashMap<>();
+        for (LabelChange change : labelChanges) {
+            changes.computeIfAbsent(change.label, l -> new LinkedHashMap<>()).put(change.vertex.getRawElement().id(), change.add);
+        }
+        changes.forEach((label, byId) -> {
+            List<Object> added = new ArrayList<>();
+            List<Object> removed = new ArrayList<>();
+            byId.forEach((id, add) -> (add ? added : removed).add(id));
+            if (!added.isEmpty()) {
+                tx.run(Statements.addLabelBatch(label), Values.parameters("ids", added));
+            }
+            if (!removed.isEmpty()) {
+                tx.run(Statements.removeLabelBatch(label), Values.parameters("ids", removed));
+            }
+        });
+    }
+
+    private StatementResult createEdges(Transaction tx, String label, List<PendingEdge> edges) {
+        List<Object> rows = new ArrayList<>(edges.size());
+        for (int i = 0; i < edges.size(); i++) {
+            PendingEdge pending = edges.get(i);
+            Map<String, Object> row = row(i, pending.edge.getRawElement().asMap());
+            row.put("a", idOf(pending.outVertex));
+            row.put("b", idOf(pending.inVertex));
+            rows.add(row);
+        }
+        return tx.run(Statements.createEdgeBatch(label), Values.parameters("rows", rows));
+    }
+
+    /**
+     * Adds a row for the indexed entries of the given properties, if any. Rows that only remove values go to
+     * {@code unindexRows}, which update existing index nodes rather than create them.
+     */
+    private void addIndexRow(List<Object> indexRows, List<Object> unindexRows, long id, Map<String, Object> properties) {
+        Map<String, Object> indexed = indexed(properties, edgeIndices);
+        if (!indexed.isEmpty()) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            row.put("props", indexed);
+            (indexed.values().stream().allMatch(Objects::isNull) ? unindexRows : indexRows).add(row);
+        }
+    }
+
+    /**
+     * The entries of the given properties whose keys are indexed, removals included.
+     */
+    static Map<String, Object> indexed(Map<String, Object> properties, Set<String> indexedKeys) {
+        if (properties == null || indexedKeys.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<String, Object> indexed = new HashMap<>();
+        properties.forEach((key, value) -> {
+            if (indexedKeys.contains(key)) {
+                indexed.put(key, value);
+            }
+        });
+        return indexed;
+    }
+
+    private void record(Map<Long, Map<String, Object>> pending, long id, String key, Object value) {
+        Map<String, Object> properties = pending.get(id);
+        if (properties == null) {
+            properties = new HashMap<>();
+            pending.put(id, properties);
+            size++;
+        }
+        properties.put(key, value);
+    }
+
+    private static List<Object> propertyRows(Map<Long, Map<String, Object>> pending) {
+        List<Object> rows = new ArrayList<>(pending.size());
+        pending.forEach((id, properties) -> {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", id);
+            row.put("props", properties);
+            rows.add(row);
+        });
+        return rows;
+    }
+
+    private static Map<String, Object> row(int index, Map<String, Object> properties) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("i", index);
+        row.put("props", properties);
+        return row;
+    }
+
+    private static long idOf(Vertex vertex) {
+        if (vertex instanceof Neo4jVertex) {
+            return ((Neo4jVertex) vertex).getRawElement().id();
+        }
+        return ((Number) vertex.getId()).longValue();
+    }
+
+}
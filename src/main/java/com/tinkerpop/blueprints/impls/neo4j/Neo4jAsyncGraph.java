@@ -0,0 +1,344 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.ElementHelper;
+import com.tinkerpop.blueprints.util.ExceptionFactory;
+import org.neo4j.driver.v1.Session;
+import org.neo4j.driver.v1.StatementResult;
+import org.neo4j.driver.v1.StatementRunner;
+import org.neo4j.driver.v1.exceptions.Neo4jException;
+import org.neo4j.driver.v1.types.Node;
+import org.neo4j.driver.v1.types.Relationship;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Non-blocking facade over a {@link Neo4jGraph}. Each call queues a statement and returns a future. Dispatchers
+ * running on the given executor drain the queue, send up to {@code maxBatch} queued statements in one pipelined round
+ * trip on a pooled session and complete the futures, also on the executor. The driver itself is blocking, so only
+ * dispatchers wait on the network and callers never do; an executor of virtual threads keeps the dispatchers cheap as
+ * well.
+ * <p>
+ * Each statement commits on its own, so the futures of a round trip succeed or fail independently. Nothing is visible
+ * to the graph's own transaction before it commits, nor the other way round. Returned elements belong to the wrapped
+ * graph, and synchronous calls on them run in its transaction as usual. Given elements are only read, on the calling
+ * thread, so they may be shared with the graph's own threads.
+ */
+public class Neo4jAsyncGraph {
+
+    private static class Request<T> {
+        final String statement;
+        final Map<String, Object> params;
+        final Function<StatementResult, T> reader;
+        final CompletableFuture<T> future = new CompletableFuture<>();
+
+        Request(String statement, Map<String, Object> params, Function<StatementResult, T> reader) {
+            this.statement = statement;
+            this.params = params;
+            this.reader = reader;
+        }
+    }
+
+    private final Neo4jGraph graph;
+    private final Executor executor;
+    private final int maxDispatchers;
+    private final int maxBatch;
+
+    private final ConcurrentLinkedQueue<Request<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger dispatchers = new AtomicInteger();
+
+    public Neo4jAsyncGraph(final Neo4jGraph graph) {
+        this(graph, graph.getExecutor(), 4, 100);
+    }
+
+    /**
+     * @param maxDispatchers round trips in flight at once, each holding a session from the graph's pool
+     * @param maxBatch       statements sent per round trip
+     */
+    public Neo4jAsyncGraph(final Neo4jGraph graph, final Executor executor, int maxDispatchers, int maxBatch) {
+        this.graph = graph;
+        this.executor = executor;
+        this.maxDispatchers = maxDispatchers;
+        this.maxBatch = maxBatch;
+    }
+
+    public Neo4jGraph getGraph() {
+        return graph;
+    }
+
+    public CompletableFuture<Vertex> addVertex(Map<String, Object> properties) {
+        Map<String, Object> params = Collections.singletonMap("props", properties == null ? Collections.emptyMap() : properties);
+        return submit(Statements.CREATE_VERTEX_WITH_PROPERTIES, params, result -> vertex(result.single().get(0).asNode()));
+    }
+
+    public CompletableFuture<Vertex> getVertex(Object id) {
+        if (null == id) {
+            throw ExceptionFactory.vertexIdCanNotBeNull();
+        }
+        return submit(graph.project(Statements.GET_VERTEX, "n"), Collections.singletonMap("id", id),
+                result -> result.hasNext() ? vertex(graph.readNode(result.next(), 0)) : null);
+    }
+
+    public CompletableFuture<List<Vertex>> getVertices(String key, Object value) {
+        return submit(graph.project(Statements.getVerticesByKey(key), "n"), Collections.singletonMap("value", value),
+                result -> result.list(record -> vertex(graph.readNode(record, 0))));
+    }
+
+    public CompletableFuture<Void> removeVertex(Vertex vertex) {
+        return submit(graph.removeVertexStatement(), Collections.singletonMap("id", vertex.getId()), result -> null);
+    }
+
+    public CompletableFuture<Edge> addEdge(Vertex outVertex, Vertex inVertex, String label) {
+        if (label == null) {
+            throw ExceptionFactory.edgeLabelCanNotBeNull();
+        }
+        Map<String, Object> params = new HashMap<>();
+        params.put("ida", outVertex.getId());
+        params.put("idb", inVertex.getId());
+        return submit(Statements.createEdge(label), params, result -> {
+            Neo4jEdge edge = edge(result.single().get(0).asRelationship());
+            edge.attachVertices(outVertex, inVertex);
+            return edge;
+        });
+    }
+
+    public CompletableFuture<Edge> getEdge(Object id) {
+        if (null == id) {
+            throw ExceptionFactory.edgeIdCanNotBeNull();
+        }
+        return submit(Statements.GET_EDGE, Collections.singletonMap("id", id),
+                result -> result.hasNext() ? edge(result.next().get(0).asRelationship()) : null);
+    }
+
+    public CompletableFuture<Void> removeEdge(Edge edge) {
+        return submit(graph.removeEdgeStatement(), Collections.singletonMap("id", edge.getId()), result -> null);
+    }
+
+    /**
+     * The edges of a vertex, each with both endpoints attached.
+     */
+    public CompletableFuture<List<Edge>> getEdges(Vertex vertex, Direction direction, String... labels) {
+        String statement = graph.project(Statements.adjacent(direction, hasLabels(labels), Statements.Adjacent.EDGES_AND_VERTICES, false), "b");
+        return submit(statement, adjacentParams(vertex, labels), result -> result.list(record -> {
+            Neo4jEdge edge = edge(record.get(0).asRelationship());
+            edge.attachVertex(vertex);
+            edge.attachVertex(vertex(graph.readNode(record, 1)));
+            return edge;
+        }));
+    }
+
+    public CompletableFuture<List<Vertex>> getVertices(Vertex vertex, Direction direction, String... labels) {
+        String statement = graph.project(Statements.adjacent(direction, hasLabels(labels), Statements.Adjacent.VERTICES, false), "b");
+        return submit(statement, adjacentParams(vertex, labels), result -> result.list(record -> vertex(graph.readNode(record, 0))));
+    }
+
+    /**
+     * An endpoint of an edge, completed at once when the edge already holds it.
+     */
+    public CompletableFuture<Vertex> getVertex(Edge edge, Direction direction) {
+        if (direction == Direction.BOTH) {
+            throw ExceptionFactory.bothIsNotSupported();
+        }
+        Neo4jEdge neo4jEdge = (Neo4jEdge) edge;
+        // Transposed like Neo4jEdge.getVertex
+        Vertex attached = direction == Direction.IN ? neo4jEdge.startVertex : neo4jEdge.endVertex;
+        if (attached != null) {
+            return CompletableFuture.completedFuture(attached);
+        }
+        Relationship relationship = neo4jEdge.getRawElement();
+        return getVertex(direction == Direction.IN ? relationship.startNodeId() : relationship.endNodeId());
+    }
+
+    /**
+     * Sets a property. The given vertex is left as it was; once stored, the future holds a new vertex with the
+     * property set.
+     */
+    public CompletableFuture<Vertex> setProperty(Vertex vertex, String key, Object value) {
+        ElementHelper.validateProperty(vertex, key, value);
+        return updateProperty((Neo4jVertex) vertex, key, value);
+    }
+
+    public CompletableFuture<Vertex> removeProperty(Vertex vertex, String key) {
+        return updateProperty((Neo4jVertex) vertex, key, null);
+    }
+
+    /**
+     * Sets a property. The given edge is left as it was; once stored, the future holds a new edge with the property
+     * set.
+     */
+    public CompletableFuture<Edge> setProperty(Edge edge, String key, Object value) {
+        ElementHelper.validateProperty(edge, key, value);
+        return updateProperty((Neo4jEdge) edge, key, value);
+    }
+
+    public CompletableFuture<Edge> removeProperty(Edge edge, String key) {
+        return updateProperty((Neo4jEdge) edge, key, null);
+    }
+
+    // The new state is taken here, on the calling thread, so dispatchers never touch the caller's element
+    private CompletableFuture<Vertex> updateProperty(Neo4jVertex vertex, String key, Object value) {
+        Node updated = vertex.clone(vertex, key, value);
+        return submit(Statements.SET_VERTEX_PROPERTIES, propertyParams(vertex, key, value), result -> {
+            result.single();
+            return vertex(updated);
+        });
+    }
+
+    private CompletableFuture<Edge> updateProperty(Neo4jEdge edge, String key, Object value) {
+        Relationship updated = edge.clone(edge, key, value);
+        return submit(graph.setEdgeProperties(key, value), propertyParams(edge, key, value), result -> {
+            result.single();
+            return edge(updated);
+        });
+    }
+
+    private static Map<String, Object> propertyParams(Element element, String key, Object value) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", element.getId());
+        params.put("props", Collections.singletonMap(key, value));
+        return params;
+    }
+
+    private static boolean hasLabels(String[] labels) {
+        return labels != null && labels.length > 0;
+    }
+
+    private Map<String, Object> adjacentParams(Vertex vertex, String[] labels) {
+        Map<String, Object> params = new HashMap<>();
+        params.put("id", vertex.getId());
+        if (hasLabels(labels)) {
+            params.put("relTypes", labels);
+        }
+        return params;
+    }
+
+    // The identity maps of the graph belong to its transactions, so results are wrapped without them
+    private Neo4jVertex vertex(Node node) {
+        return new Neo4jVertex(node, graph);
+    }
+
+    private Neo4jEdge edge(Relationship relationship) {
+        return new Neo4jEdge(relationship, graph);
+    }
+
+    private <T> CompletableFuture<T> submit(String statement, Map<String, Object> params, Function<StatementResult, T> reader) {
+        Request<T> request = new Request<>(statement, params, reader);
+        queue.add(request);
+        if (tryStartDispatcher()) {
+            executor.execute(this::dispatch);
+        }
+        return request.future;
+    }
+
+    private boolean tryStartDispatcher() {
+        int running;
+        while ((running = dispatchers.get()) < maxDispatchers) {
+            if (dispatchers.compareAndSet(running, running + 1)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void dispatch() {
+        while (true) {
+            List<Request<?>> batch = new ArrayList<>();
+            Request<?> request;
+            while (batch.size() < maxBatch && (request = queue.poll()) != null) {
+                batch.add(request);
+            }
+            if (!batch.isEmpty()) {
+                run(batch);
+                continue;
+            }
+            dispatchers.decrementAndGet();
+            // A request queued while this dispatcher was stopping may have found all dispatchers busy
+            if (queue.isEmpty() || !tryStartDispatcher()) {
+                return;
+            }
+        }
+    }
+
+    private void run(List<Request<?>> batch) {
+        int sent = 0;
+        while (sent < batch.size()) {
+            sent = run(batch, sent);
+        }
+    }
+
+    /**
+     * Sends the requests from {@code start} on in one round trip, each as a statement of its own, and completes them
+     * in order. Once a statement fails on the server, those sent after it come back empty without having run, so the
+     * index of the next request is returned for them to go out again.
+     */
+    private int run(List<Request<?>> batch, int start) {
+        List<Request<?>> requests = batch.subList(start, batch.size());
+        Session session;
+        try {
+            session = graph.sessions.acquire();
+        } catch (Throwable ex) {
+            requests.forEach(request -> fail(request, ex));
+            return batch.size();
+        }
+        try {
+            List<StatementResult> results = new ArrayList<>(requests.size());
+            try {
+                // Runs are lazy, so all statements go out before the first result is read
+                StatementRunner runner = graph.listeners.wrap(session);
+                for (Request<?> request : requests) {
+                    results.add(runner.run(request.statement, request.params));
+                }
+            } catch (Throwable ex) {
+                session.close();
+                requests.forEach(request -> fail(request, ex));
+                return batch.size();
+            }
+            for (int i = 0; i < requests.size(); i++) {
+                Request<?> request = requests.get(i);
+                Object value;
+                try {
+                    value = request.reader.apply(results.get(i));
+                    // Readers may leave a result unread, and without a commit only reading it makes sure it ran
+                    results.get(i).consume();
+                } catch (Neo4jException ex) {
+                    fail(request, ex);
+                    if (ex.neo4jErrorCode() != null) {
+                        // A session that saw a failure is closed rather than pooled, as for failed transactions
+                        session.close();
+                        return start + i + 1;
+                    }
+                    continue;
+                } catch (Throwable ex) {
+                    fail(request, ex);
+                    continue;
+                }
+                complete(request, value);
+            }
+            return batch.size();
+        } finally {
+            graph.sessions.release(session);
+        }
+    }
+
+    private void fail(Request<?> request, Throwable ex) {
+        executor.execute(() -> request.future.completeExceptionally(ex));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> void complete(Request<T> request, Object value) {
+        executor.execute(() -> request.future.complete((T) value));
+    }
+
+}
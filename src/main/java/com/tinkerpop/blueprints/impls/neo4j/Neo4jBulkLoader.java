@@ -0,0 +1,335 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.impls.neo4j.util.LongLongHashMap;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Session;
+import org.neo4j.driver.v1.Transaction;
+import org.neo4j.driver.v1.Values;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loads vertices and edges identified by client-side keys in large {@code UNWIND} batches. Batches are written by a
+ * background thread on a pooled session, so the next batch is built while the previous one runs, and are committed
+ * every {@code commitSize} rows independently of the graph's transaction. Edges refer to their endpoints by key, which
+ * must have been loaded earlier by this loader.
+ * <p>
+ * Errors raised on the writer surface from the next call; rows in the uncommitted part of the load are then lost. The
+ * writer only holds its session while it has rows to write or commit, and a loader that is never closed is aborted
+ * when the graph shuts down, rolling back its uncommitted rows.
+ */
+public class Neo4jBulkLoader implements AutoCloseable {
+
+    public static class VertexRecord {
+        public final long key;
+        public final Map<String, Object> properties;
+
+        public VertexRecord(long key, Map<String, Object> properties) {
+            this.key = key;
+            this.properties = properties;
+        }
+    }
+
+    public static class EdgeRecord {
+        public final long outKey;
+        public final long inKey;
+        public final String label;
+        public final Map<String, Object> properties;
+
+        public EdgeRecord(long outKey, long inKey, String label, Map<String, Object> properties) {
+            this.outKey = outKey;
+            this.inKey = inKey;
+            this.label = label;
+            this.properties = properties;
+        }
+    }
+
+    private interface Batch {
+        int write(Transaction tx);
+    }
+
+    private static final Batch END = tx -> 0;
+    private static final long IDLE_MILLIS = 100;
+    private static final long ABORT_MILLIS = 1000;
+
+    private final SessionPool sessions;
+    private final Set<Neo4jBulkLoader> openLoaders;
+    private final StatementListeners listeners;
+    private final Set<String> edgeIndices;
+    private final int batchSize;
+    private final int commitSize;
+
+    // Only touched by the writer until it has finished
+    private final LongLongHashMap vertexIds = new LongLongHashMap(1024);
+    private volatile long vertexCount;
+    private volatile long edgeCount;
+
+    private final BlockingQueue<Batch> queue = new ArrayBlockingQueue<>(2);
+    private final Future<?> writer;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private volatile Throwable failure;
+    private volatile boolean aborted;
+
+    private List<Object> vertexRows = new ArrayList<>();
+    private Map<String, List<EdgeRecord>> edgeRecords = new LinkedHashMap<>();
+    private int edgeRows;
+    private boolean closed;
+
+    public Neo4jBulkLoader(final Neo4jGraph graph) {
+        this(graph, 10000, 100000);
+    }
+
+    /**
+     * @param batchSize  rows sent per statement
+     * @param commitSize rows after which the writer commits, rounded up to whole batches
+     */
+    public Neo4jBulkLoader(final Neo4jGraph graph, int batchSize, int commitSize) {
+        this.sessions = graph.sessions;
+        this.listeners = graph.listeners;
+        this.edgeIndices = graph.getIndexedKeys(Edge.class);
+        this.batchSize = batchSize;
+        this.commitSize = commitSize;
+        this.openLoaders = graph.openLoaders;
+        openLoaders.add(this);
+        this.writer = graph.getExecutor().submit(this::write);
+    }
+
+    public void addVertex(long key, Map<String, Object> properties) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("i", key);
+        row.put("props", properties == null ? Collections.emptyMap() : properties);
+        vertexRows.add(row);
+        if (vertexRows.size() >= batchSize) {
+            submitVertices();
+        }
+    }
+
+    public void addEdge(long outKey, long inKey, String label, Map<String, Object> properties) {
+        // Edges may refer to vertices that are still pending
+        if (!vertexRows.isEmpty()) {
+            submitVertices();
+        }
+        edgeRecords.computeIfAbsent(label, l -> new ArrayList<>()).add(new EdgeRecord(outKey, inKey, label, properties));
+        if (++edgeRows >= batchSize) {
+            submitEdges();
+        }
+    }
+
+    public void loadVertices(Stream<VertexRecord> vertices) {
+        vertices.forEach(vertex -> addVertex(vertex.key, vertex.properties));
+    }
+
+    public void loadEdges(Stream<EdgeRecord> edges) {
+        edges.forEach(edge -> addEdge(edge.outKey, edge.inKey, edge.label, edge.properties));
+    }
+
+    /**
+     * Sends all rows held by the loader and waits for the writer to commit them.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!vertexRows.isEmpty()) {
+            submitVertices();
+        }
+        if (edgeRows > 0) {
+            submitEdges();
+        }
+        submit(END);
+        try {
+            writer.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the bulk load to finish", ex);
+        } catch (ExecutionException ex) {
+            failure = ex.getCause();
+        }
+        checkFailure();
+    }
+
+    /**
+     * The node id of a loaded vertex, or {@link Neo4jElement#UNSAVED_ID} for an unknown key. Only available once
+     * the loader is closed.
+     */
+    public long getVertexId(long key) {
+        if (!closed) {
+            throw new IllegalStateException("Vertex ids are only available once the loader is closed");
+        }
+        return vertexIds.get(key, Neo4jElement.UNSAVED_ID);
+    }
+
+    /**
+     * Vertices written so far, including those not yet committed.
+     */
+    public long getVertexCount() {
+        return vertexCount;
+    }
+
+    public long getEdgeCount() {
+        return edgeCount;
+    }
+
+    private void submitVertices() {
+        List<Object> rows = vertexRows;
+        vertexRows = new ArrayList<>(batchSize);
+        submit(tx -> {
+            for (Record record : tx.run(Statements.CREATE_VERTEX_BATCH, Values.parameters("rows", rows)).list()) {
+                vertexIds.put(record.get(0).asLong(), record.get(1).asLong());
+            }
+            vertexCount += rows.size();
+            return rows.size();
+        });
+    }
+
+    private void submitEdges() {
+        Map<String, List<EdgeRecord>> records = edgeRecords;
+        edgeRecords = new LinkedHashMap<>();
+        edgeRows = 0;
+        submit(tx -> {
+            int count = 0;
+            for (Map.Entry<String, List<EdgeRecord>> entry : records.entrySet()) {
+                List<Object> rows = new ArrayList<>(entry.getValue().size());
+                List<Object> indexedRows = new ArrayList<>();
+                for (EdgeRecord edge : entry.getValue()) {
+                    Map<String, Object> row = new HashMap<>();
+                    row.put("a", resolve(edge.outKey));
+                    row.put("b", resolve(edge.inKey));
+                    row.put("props", edge.properties == null ? Collections.emptyMap() : edge.properties);
+                    Map<String, Object> indexed = MutationBuffer.indexed(edge.properties, edgeIndices);
+                    if (indexed.isEmpty()) {
+                        rows.add(row);
+                    } else {
+                        row.put("indexed", indexed);
+                        indexedRows.add(row);
+                    }
+                }
+                // Nothing is returned, so edge batches pipeline up to the next commit
+                if (!rows.isEmpty()) {
+                    tx.run(Statements.createEdgeBulk(entry.getKey()), Values.parameters("rows", rows));
+                }
+                if (!indexedRows.isEmpty()) {
+                    tx.run(Statements.createIndexedEdgeBulk(entry.getKey()), Values.parameters("rows", indexedRows));
+                }
+                count += rows.size() + indexedRows.size();
+            }
+            edgeCount += count;
+            return count;
+        });
+    }
+
+    private long resolve(long key) {
+        long id = vertexIds.get(key, Neo4jElement.UNSAVED_ID);
+        if (id == Neo4jElement.UNSAVED_ID) {
+            throw new IllegalArgumentException("No vertex has been loaded with key " + key);
+        }
+        return id;
+    }
+
+    private void submit(Batch batch) {
+        try {
+            while (!queue.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+                checkFailure();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while submitting a batch", ex);
+        }
+        checkFailure();
+    }
+
+    /**
+     * Stops the writer on graph shutdown, rolling back its open transaction, and waits briefly for its session to be
+     * released. Later calls on the loader fail. The writer is not interrupted, as that would break the connection of a
+     * statement in progress; it notices the abort between batches.
+     */
+    void abort() {
+        failure = new IllegalStateException("The graph was shut down before the bulk load was closed");
+        aborted = true;
+        try {
+            finished.await(ABORT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void checkFailure() {
+        Throwable cause = failure;
+        if (cause != null) {
+            throw new IllegalStateException("Bulk load failed", cause);
+        }
+    }
+
+    private void write() {
+        Session session = null;
+        Transaction tx = null;
+        try {
+            int uncommitted = 0;
+            Batch batch;
+            while (!aborted && (batch = queue.poll(IDLE_MILLIS, TimeUnit.MILLISECONDS)) != END) {
+                if (batch == null) {
+                    // Between transactions an idle writer gives its session back, so an abandoned loader holds none
+                    if (tx == null && session != null) {
+                        sessions.release(session);
+                        session = null;
+                    }
+                    continue;
+                }
+                if (session == null) {
+                    session = sessions.acquire();
+                }
+                if (tx == null) {
+                    tx = listeners.wrap(session.beginTransaction());
+                }
+                uncommitted += batch.write(tx);
+                if (uncommitted >= commitSize) {
+                    tx.success();
+                    tx.close();
+                    tx = null;
+                    uncommitted = 0;
+                }
+            }
+            if (tx != null) {
+                if (aborted) {
+                    tx.failure();
+                } else {
+                    tx.success();
+                }
+                tx.close();
+                tx = null;
+            }
+        } catch (Throwable ex) {
+            // An abort has already recorded why the load stopped
+            if (failure == null) {
+                failure = ex;
+            }
+            if (tx != null) {
+                tx.failure();
+                tx.close();
+            }
+        } finally {
+            if (session != null) {
+                sessions.release(session);
+            }
+            openLoaders.remove(this);
+            finished.countDown();
+        }
+    }
+
+}
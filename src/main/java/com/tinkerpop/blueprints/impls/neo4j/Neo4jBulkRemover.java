@@ -0,0 +1,159 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.neo4j.util.LongHashSet;
+import org.neo4j.driver.v1.Session;
+import org.neo4j.driver.v1.Transaction;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.Values;
+import org.neo4j.driver.v1.summary.SummaryCounters;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Removes vertices with many edges, or whole subgraphs, in short transactions of bounded size rather than with one
+ * {@code detach delete} in the graph's transaction. The edges of the vertices being removed are deleted at most
+ * {@code batchSize} at a time before the vertices themselves, and matching vertices are taken {@code batchSize} at a
+ * time; each batch is committed on a session of its own, after which progress is reported.
+ * <p>
+ * The graph's transaction is committed first, as for key index changes, so that its writes are visible and its locks
+ * do not hold back the removal. A removal that fails part way keeps the batches committed so far.
+ */
+public class Neo4jBulkRemover {
+
+    /**
+     * Receives the totals removed so far by the current call, after each committed batch.
+     */
+    public interface ProgressListener {
+        void progress(long vertices, long edges);
+    }
+
+    private final Neo4jGraph graph;
+    private final int batchSize;
+    private ProgressListener listener = (vertices, edges) -> {
+    };
+
+    private long vertices;
+    private long edges;
+
+    public Neo4jBulkRemover(final Neo4jGraph graph) {
+        this(graph, 10000);
+    }
+
+    /**
+     * @param batchSize edges or vertices removed per transaction
+     */
+    public Neo4jBulkRemover(final Neo4jGraph graph, int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.graph = graph;
+        this.batchSize = batchSize;
+    }
+
+    public Neo4jBulkRemover onProgress(ProgressListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * Removes a vertex and its edges, however many it has.
+     */
+    public void removeVertex(Vertex vertex) {
+        graph.commit();
+        vertices = 0;
+        edges = 0;
+        remove(new long[]{Neo4jElement.longId(vertex)});
+    }
+
+    public long removeVertices(String label) {
+        return removeVertices(label, null, null);
+    }
+
+    public long removeVertices(String key, Object value) {
+        return removeVertices(null, key, value);
+    }
+
+    /**
+     * Removes the vertices with the given label and, if a key is given, the given value for it, with their edges.
+     * Either the label or the key may be null, but not both.
+     *
+     * @return the number of vertices removed
+     */
+    public long removeVertices(String label, String key, Object value) {
+        if (label == null && key == null) {
+            throw new IllegalArgumentException("Removing vertices requires a label or a key");
+        }
+        graph.commit();
+        vertices = 0;
+        edges = 0;
+        String select = Statements.selectVertexIds(label, key, key != null && graph.getIndexedKeys(Vertex.class).contains(key));
+        Map<String, Object> params = new HashMap<>();
+        params.put("value", value);
+        params.put("limit", batchSize);
+        // Removed vertices no longer match, so each selection is the next batch
+        long[] ids;
+        while ((ids = ids(select, params)).length > 0) {
+            remove(ids);
+        }
+        return vertices;
+    }
+
+    private void remove(long[] ids) {
+        String removeEdges = graph.getIndexedKeys(Edge.class).isEmpty()
+                ? Statements.REMOVE_EDGES_OF_VERTICES : Statements.REMOVE_INDEXED_EDGES_OF_VERTICES;
+        int removed;
+        do {
+            removed = write(removeEdges, Values.parameters("ids", ids, "limit", batchSize)).relationshipsDeleted();
+            if (removed > 0) {
+                edges += removed;
+                listener.progress(vertices, edges);
+            }
+        } while (removed >= batchSize);
+
+        // Any edge added since is removed along with its vertex; its index node, if any, is left to be ignored
+        SummaryCounters counters = write(Statements.REMOVE_VERTICES, Values.parameters("ids", ids));
+        vertices += counters.nodesDeleted();
+        edges += counters.relationshipsDeleted();
+        listener.progress(vertices, edges);
+
+        LongHashSet removedIds = new LongHashSet(ids.length);
+        for (long id : ids) {
+            removedIds.add(id);
+            graph.getVertexCache().remove(id);
+        }
+        graph.getEdgeCache().removeIf(edge -> removedIds.contains(edge.getRawElement().startNodeId())
+                || removedIds.contains(edge.getRawElement().endNodeId()));
+    }
+
+    private long[] ids(String statement, Map<String, Object> params) {
+        List<Long> ids = run(tx -> tx.run(statement, params).list(record -> record.get(0).asLong()));
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private SummaryCounters write(String statement, Value params) {
+        return run(tx -> tx.run(statement, params).consume().counters());
+    }
+
+    private <T> T run(Function<Transaction, T> work) {
+        Session session = graph.sessions.acquire();
+        try {
+            try (Transaction tx = graph.listeners.wrap(session.beginTransaction())) {
+                T result = work.apply(tx);
+                tx.success();
+                return result;
+            }
+        } catch (RuntimeException ex) {
+            // A failed transaction stays open on the server until the connection is reset, so the session is closed
+            session.close();
+            throw ex;
+        } finally {
+            graph.sessions.release(session);
+        }
+    }
+
+}
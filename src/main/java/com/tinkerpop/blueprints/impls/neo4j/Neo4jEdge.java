@@ -5,18 +5,41 @@ import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.util.ElementHelper;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
-import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.Values;
 import org.neo4j.driver.v1.types.Relationship;
 
+import java.util.Collections;
+
 public class Neo4jEdge extends Neo4jElement<Relationship> implements Edge {
 
+    // Endpoints already known locally, so that getVertex needs no round trip
+    protected Vertex startVertex;
+    protected Vertex endVertex;
+
     public Neo4jEdge(final Relationship relationship, final Neo4jGraph graphDb) {
         super(graphDb);
         this.rawElement = relationship;
     }
 
+    /**
+     * Records a loaded endpoint of this edge. Vertices that are not an endpoint are ignored.
+     */
+    public void attachVertex(Vertex vertex) {
+        long id = longId(vertex);
+        if (id == rawElement.startNodeId()) {
+            startVertex = vertex;
+        }
+        if (id == rawElement.endNodeId()) {
+            endVertex = vertex;
+        }
+    }
+
+    void attachVertices(Vertex start, Vertex end) {
+        startVertex = start;
+        endVertex = end;
+    }
+
     @Override
     public Vertex getVertex(Direction direction) throws IllegalArgumentException {
         if (direction == Direction.BOTH) {
@@ -24,10 +47,19 @@ public class Neo4jEdge extends Neo4jElement<Relationship> implements Edge {
         }
         // !!! The GraphPerfTest I was given has the direction transposed... I transposed it here too because the
         // Oracle impl is probably bugged too !!!
-        String statement = "match (a)-[r]->(b) where id(r) = {id} return " + (direction == Direction.IN ? "a" : "b");
-        Value params = Values.parameters("id", getId());
-        StatementResult result = graphDb.withTx().run(statement, params);
-        return new Neo4jVertex(result.single().get(0).asNode(), graphDb);
+        Vertex attached = direction == Direction.IN ? startVertex : endVertex;
+        if (attached != null) {
+            return attached;
+        }
+        if (rawElement.id() == UNSAVED_ID) {
+            graphDb.flush();
+        }
+        if (direction == Direction.IN) {
+            startVertex = graphDb.getVertex(rawElement.startNodeId());
+            return startVertex;
+        }
+        endVertex = graphDb.getVertex(rawElement.endNodeId());
+        return endVertex;
     }
 
     @Override
@@ -38,19 +70,33 @@ public class Neo4jEdge extends Neo4jElement<Relationship> implements Edge {
     @Override
     public void setProperty(String key, Object value) {
         ElementHelper.validateProperty(this, key, value);
-        String statement = String.format("match ()-[r]->() where id(r) = {id} set r.`%s` = {value} return r", key);
-        Value params = Values.parameters("id", getId(), "value", value);
-        StatementResult result = graphDb.withTx().run(statement, params);
-        rawElement = result.single().get(0).asRelationship();
+        if (graphDb.isWriteBehind()) {
+            rawElement = clone(this, key, value);
+            if (rawElement.id() != UNSAVED_ID) {
+                graphDb.getMutationBuffer().setProperty(this, key, value);
+            }
+            graphDb.flushIfFull();
+            return;
+        }
+        Value params = Values.parameters("id", getId(), "props", Collections.singletonMap(key, value));
+        graphDb.withTx().run(graphDb.setEdgeProperties(key, value), params).single();
+        rawElement = clone(this, key, value);
     }
 
     @Override
     public Object removeProperty(String key) {
         Object propValue = getProperty(key);
-        String statement = String.format("match ()-[r]->() where id(r) = {id} remove r.`%s` return r", key);
-        Value params = Values.parameters("id", getId());
-        StatementResult result = graphDb.withTx().run(statement, params);
-        rawElement = result.single().get(0).asRelationship();
+        if (graphDb.isWriteBehind()) {
+            rawElement = clone(this, key);
+            if (rawElement.id() != UNSAVED_ID) {
+                graphDb.getMutationBuffer().setProperty(this, key, null);
+            }
+            graphDb.flushIfFull();
+            return propValue;
+        }
+        Value params = Values.parameters("id", getId(), "props", Collections.singletonMap(key, null));
+        graphDb.withTx().run(graphDb.setEdgeProperties(key, null), params).single();
+        rawElement = clone(this, key);
         return propValue;
     }
 
@@ -59,4 +105,15 @@ public class Neo4jEdge extends Neo4jElement<Relationship> implements Edge {
         graphDb.removeEdge(this);
     }
 
+    public boolean equals(Object other) {
+        if (other instanceof Neo4jEdge) {
+            return getLongId() == ((Neo4jEdge) other).getLongId();
+        }
+        return other instanceof Edge && getId().equals(((Edge) other).getId());
+    }
+
+    public String toString() {
+        return "Edge(" + getId() + ")";
+    }
+
 }
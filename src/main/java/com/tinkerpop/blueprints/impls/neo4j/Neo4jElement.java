@@ -10,7 +10,9 @@ import org.neo4j.driver.v1.types.Node;
 import org.neo4j.driver.v1.types.Relationship;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -18,9 +20,22 @@ import java.util.stream.StreamSupport;
 
 public abstract class Neo4jElement<S extends Entity> implements Element {
 
+    /**
+     * Id held by elements created in write-behind mode until their creation has been sent to the server.
+     */
+    public static final long UNSAVED_ID = -1L;
+
     protected final Neo4jGraph graphDb;
     protected S rawElement;
 
+    // Identity hash handed out while the element was unsaved, kept once its id is assigned
+    private boolean hashedUnsaved;
+    private int unsavedHash;
+
+    // Read-only view of the keys of keyViewOf, rebuilt only when rawElement is replaced
+    private Entity keyViewOf;
+    private Set<String> keyView;
+
     public Neo4jElement(final Neo4jGraph graphDb) {
         this.graphDb = graphDb;
     }
@@ -33,16 +48,66 @@ public abstract class Neo4jElement<S extends Entity> implements Element {
         return null;
     }
 
+    /**
+     * The keys of the element as a read-only view, shared between calls until the element changes.
+     */
     @Override
     public Set<String> getPropertyKeys() {
-        return StreamSupport.stream(rawElement.keys().spliterator(), false).collect(Collectors.toSet());
+        S element = rawElement;
+        if (keyViewOf != element) {
+            keyView = view(element.keys());
+            keyViewOf = element;
+        }
+        return keyView;
     }
 
     @Override
     public Object getId() {
+        return getLongId();
+    }
+
+    /**
+     * The id without boxing. Like {@link #getId()}, flushes pending writes if the element is not saved yet.
+     */
+    public long getLongId() {
+        if (rawElement.id() == UNSAVED_ID) {
+            graphDb.flush();
+        }
         return rawElement.id();
     }
 
+    /**
+     * Hashes on the id without flushing pending writes. An element first hashed before its id is assigned keeps an
+     * identity hash, so that collections already holding it still find it; it should then not share a hash-based
+     * collection with other instances of the same vertex or edge.
+     */
+    @Override
+    public int hashCode() {
+        if (!hashedUnsaved && rawElement.id() != UNSAVED_ID) {
+            return Long.hashCode(rawElement.id());
+        }
+        if (!hashedUnsaved) {
+            hashedUnsaved = true;
+            unsavedHash = System.identityHashCode(this);
+        }
+        return unsavedHash;
+    }
+
+    static long longId(Element element) {
+        return element instanceof Neo4jElement ? ((Neo4jElement<?>) element).getLongId() : ((Number) element.getId()).longValue();
+    }
+
+    // The driver exposes keys and labels through its own collections, which are wrapped rather than copied
+    @SuppressWarnings("unchecked")
+    static Set<String> view(Iterable<String> values) {
+        if (values instanceof Set) {
+            return Collections.unmodifiableSet((Set<String>) values);
+        }
+        Set<String> copy = new LinkedHashSet<>();
+        values.forEach(copy::add);
+        return Collections.unmodifiableSet(copy);
+    }
+
     public S getRawElement() {
         return rawElement;
     }
@@ -61,13 +126,36 @@ public abstract class Neo4jElement<S extends Entity> implements Element {
         Node node = vertex.getRawElement();
         Collection<String> labels = StreamSupport.stream(node.labels().spliterator(), false).collect(Collectors.toList());
         Map<String, Value> properties = cloneProps(vertex, key, value);
-        return new InternalNode(node.id(), labels, properties);
+        return node(node, labels, properties);
     }
 
     protected Node clone(Neo4jVertex vertex, String key) {
         return clone(vertex, key, null);
     }
 
+    protected Node cloneWithLabel(Neo4jVertex vertex, String label) {
+        Node node = vertex.getRawElement();
+        Collection<String> labels = StreamSupport.stream(node.labels().spliterator(), false).collect(Collectors.toCollection(LinkedHashSet::new));
+        labels.add(label);
+        return node(node, labels, node.asMap(v -> Values.value(v)));
+    }
+
+    protected Node cloneWithoutLabel(Neo4jVertex vertex, String label) {
+        Node node = vertex.getRawElement();
+        Collection<String> labels = StreamSupport.stream(node.labels().spliterator(), false).collect(Collectors.toCollection(LinkedHashSet::new));
+        labels.remove(label);
+        return node(node, labels, node.asMap(v -> Values.value(v)));
+    }
+
+    // A projected node stays projected, its other properties are still to be loaded
+    private Node node(Node template, Collection<String> labels, Map<String, Value> properties) {
+        if (template instanceof VertexProjection.ProjectedNode) {
+            return new VertexProjection.ProjectedNode(template.id(), labels, properties,
+                    ((VertexProjection.ProjectedNode) template).getProjectedKeys());
+        }
+        return new InternalNode(template.id(), labels, properties);
+    }
+
     private Map<String, Value> cloneProps(Neo4jElement element, String key, Object value) {
         Map<String, Value> properties = new HashMap(element.getRawElement().asMap(v -> Values.value(v)));
         if (value == null) {
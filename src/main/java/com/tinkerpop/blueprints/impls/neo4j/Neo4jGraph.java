@@ -2,23 +2,48 @@ package com.tinkerpop.blueprints.impls.neo4j;
 
 import com.tinkerpop.blueprints.*;
 import com.tinkerpop.blueprints.impls.neo4j.iterable.EdgeIterable;
+import com.tinkerpop.blueprints.impls.neo4j.iterable.IdRangeSpliterator;
+import com.tinkerpop.blueprints.impls.neo4j.iterable.PagedCursor;
 import com.tinkerpop.blueprints.impls.neo4j.iterable.VertexIterable;
-import com.tinkerpop.blueprints.util.DefaultGraphQuery;
+import com.tinkerpop.blueprints.impls.neo4j.util.LongHashSet;
+import com.tinkerpop.blueprints.impls.neo4j.util.LongLongHashMap;
 import com.tinkerpop.blueprints.util.ExceptionFactory;
 import org.apache.commons.configuration.Configuration;
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.internal.InternalRelationship;
 import org.neo4j.driver.v1.*;
+import org.neo4j.driver.v1.Record;
 import org.neo4j.driver.v1.types.Entity;
 import org.neo4j.driver.v1.types.Node;
 import org.neo4j.driver.v1.types.Relationship;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
 import java.io.File;
+import java.lang.management.ManagementFactory;
 import java.nio.file.Paths;
-import java.util.HashSet;
-import java.util.Optional;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
 import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
-public class Neo4jGraph implements KeyIndexableGraph, MetaGraph<Session>, TransactionalGraph {
+public class Neo4jGraph implements KeyIndexableGraph, MetaGraph<Session>, ThreadedTransactionalGraph {
 
     private static final Logger logger = Logger.getLogger(Neo4jGraph.class.getName());
 
@@ -47,13 +72,13 @@ public class Neo4jGraph implements KeyIndexableGraph, MetaGraph<Session>, Transa
         FEATURES.ignoresSuppliedIds = true;
         FEATURES.supportsTransactions = true;
         FEATURES.supportsIndices = false;
-        FEATURES.supportsKeyIndices = false;
-        FEATURES.supportsVertexKeyIndex = false;
-        FEATURES.supportsEdgeKeyIndex = false;
+        FEATURES.supportsKeyIndices = true;
+        FEATURES.supportsVertexKeyIndex = true;
+        FEATURES.supportsEdgeKeyIndex = true;
         FEATURES.supportsEdgeRetrieval = true;
         FEATURES.supportsVertexProperties = true;
         FEATURES.supportsEdgeProperties = true;
-        FEATURES.supportsThreadedTransactions = false;
+        FEATURES.supportsThreadedTransactions = true;
     }
 
     public interface ElementWrapper<T extends Element, S extends Entity> {
@@ -76,17 +101,140 @@ public class Neo4jGraph implements KeyIndexableGraph, MetaGraph<Session>, Transa
 
     protected Configuration config;
     protected final Driver driver;
-    protected Session session;
-    protected Optional<Transaction> tx = Optional.empty();
+    protected final SessionPool sessions;
+    final StatementListeners listeners;
+    protected int writeBehindBatchSize;
+    protected int scanPageSize;
+    protected int parallelScanChunkSize;
+    protected boolean prefetchAdjacent;
+    protected int adjacencyPageSize;
+    protected int adjacencyMaxPageSize;
+    protected boolean autocommitReads;
+    protected int cacheSize;
+    protected VertexProjection projection;
+    private ExecutorService executor;
+    private Neo4jMetrics metrics;
+    private ObjectName metricsName;
+
+    private final Neo4jGraph root;
+    private final Set<TransactionContext> openContexts;
+    // Bulk loaders whose writer has not finished, aborted on shutdown
+    final Set<Neo4jBulkLoader> openLoaders;
+    private final TransactionContext context;
+    private final ThreadLocal<TransactionContext> threadContext;
 
     private VertexWrapper<? extends Vertex> vertexWrapper;
     private EdgeWrapper<? extends Edge> edgeWrapper;
 
+    /**
+     * Returns the open transaction, beginning one if required. Any buffered writes are sent first so that the
+     * caller's statement observes them.
+     */
     public Transaction withTx() {
-        if (!tx.isPresent()) {
-            tx = Optional.of(session.beginTransaction());
+        flush();
+        return transaction();
+    }
+
+    /**
+     * Returns the runner for a read. With {@code autocommitReads}, a read while no transaction is open and no writes
+     * are buffered runs directly on the session in its own autocommit transaction; otherwise it joins the open
+     * transaction like {@link #withTx()}.
+     */
+    public StatementRunner forRead() {
+        TransactionContext ctx = context();
+        if (autocommitReads && !ctx.inTransaction() && (ctx.mutations == null || ctx.mutations.isEmpty())) {
+            return ctx.autocommit();
+        }
+        return withTx();
+    }
+
+    private Transaction transaction() {
+        return context().transaction();
+    }
+
+    /**
+     * The transaction state of the calling thread when transactions are thread-bound, otherwise of this graph.
+     */
+    TransactionContext context() {
+        return threadContext != null ? threadContext.get() : context;
+    }
+
+    private TransactionContext newContext(boolean pinned) {
+        MutationBuffer mutations = writeBehindBatchSize > 0 ? new MutationBuffer(writeBehindBatchSize, edgeIndices) : null;
+        return new TransactionContext(sessions, openContexts, listeners, pinned, mutations, cacheSize);
+    }
+
+    /**
+     * Sends any writes held by the write-behind buffer to the server. Does nothing unless write-behind is enabled.
+     */
+    public void flush() {
+        TransactionContext ctx = context();
+        if (ctx.mutations != null && !ctx.mutations.isEmpty()) {
+            for (Neo4jElement<?> saved : ctx.mutations.flush(ctx.transaction())) {
+                if (saved instanceof Neo4jVertex) {
+                    ctx.vertexCache.put(saved.getRawElement().id(), (Neo4jVertex) saved);
+                } else {
+                    ctx.edgeCache.put(saved.getRawElement().id(), (Neo4jEdge) saved);
+                }
+            }
+        }
+    }
+
+    /**
+     * Whether {@link Neo4jVertex#getEdges} also returns the far end of each edge so that
+     * {@link Neo4jEdge#getVertex} is answered locally.
+     */
+    public boolean isPrefetchAdjacent() {
+        return prefetchAdjacent;
+    }
+
+    /**
+     * Edges and adjacent vertices read per statement by vertex queries, or 0 to read them in a single statement.
+     */
+    public int getAdjacencyPageSize() {
+        return adjacencyPageSize;
+    }
+
+    /**
+     * Size up to which adjacency pages double, as each page is found by a pass over all of the vertex's edges.
+     */
+    public int getAdjacencyMaxPageSize() {
+        return adjacencyMaxPageSize;
+    }
+
+    public boolean isAutocommitReads() {
+        return autocommitReads;
+    }
+
+    public boolean isWriteBehind() {
+        return writeBehindBatchSize > 0;
+    }
+
+    MutationBuffer getMutationBuffer() {
+        return context().mutations;
+    }
+
+    void flushIfFull() {
+        if (getMutationBuffer().isFull()) {
+            flush();
         }
-        return tx.get();
+    }
+
+    /**
+     * Daemon thread pool for background work such as page prefetching, created on first use.
+     */
+    protected synchronized ExecutorService getExecutor() {
+        if (root != this) {
+            return root.getExecutor();
+        }
+        if (executor == null) {
+            executor = Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(runnable, "neo4j-graph-background");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
     }
 
     public Neo4jGraph(final Configuration argConfig) {
@@ -110,10 +258,160 @@ public class Neo4jGraph implements KeyIndexableGraph, MetaGraph<Session>, Transa
         AuthToken authToken = AuthTokens.basic(username, password);
 
         driver = GraphDatabase.driver(url, authToken, neo4jConfig.toConfig());
-        session = driver.session();
+        sessions = new SessionPool(driver, config.getInt("sessionPoolSize", 64), config.getLong("sessionPoolTimeout", 30000));
+        listeners = new StatementListeners();
+        if (config.getBoolean("metrics", false)) {
+            metrics = new Neo4jMetrics();
+            listeners.add(metrics);
+            registerMetrics(url);
+        }
+        if (config.getLong("slowStatementThreshold", 0) > 0) {
+            listeners.add(new SlowStatementLog(config.getLong("slowStatementThreshold")));
+        }
+
+        if (config.getBoolean("writeBehind", false)) {
+            writeBehindBatchSize = config.getInt("writeBehindBatchSize", 1000);
+        }
+        scanPageSize = config.getInt("scanPageSize", 0);
+        parallelScanChunkSize = config.getInt("parallelScanChunkSize", 10000);
+        prefetchAdjacent = config.getBoolean("prefetchAdjacent", false);
+        adjacencyPageSize = config.getInt("adjacencyPageSize", 0);
+        adjacencyMaxPageSize = config.getInt("adjacencyMaxPageSize", 10000);
+        autocommitReads = config.getBoolean("autocommitReads", false);
+        cacheSize = config.getInt("cacheSize", 0);
+        if (config.containsKey("projectedKeys")) {
+            projection = new VertexProjection(Arrays.stream(config.getStringArray("projectedKeys"))
+                    .map(String::trim).filter(key -> !key.isEmpty()).collect(Collectors.toList()));
+        }
+        vertexIndices = ConcurrentHashMap.newKeySet();
+        edgeIndices = ConcurrentHashMap.newKeySet();
+        loadIndexedKeys();
+
+        root = this;
+        openContexts = ConcurrentHashMap.newKeySet();
+        openLoaders = ConcurrentHashMap.newKeySet();
+        if (config.getBoolean("threadBoundTransactions", false)) {
+            context = null;
+            threadContext = ThreadLocal.withInitial(() -> newContext(false));
+        } else {
+            context = newContext(true);
+            threadContext = null;
+        }
+
+        vertexWrapper = createCachingVertexWrapper(this, createDefaultVertexWrapper(this));
+        edgeWrapper = createCachingEdgeWrapper(this, createDefaultEdgeWrapper(this));
+    }
+
+    /**
+     * Creates an independent transaction on the driver and session pool of the given graph.
+     */
+    protected Neo4jGraph(final Neo4jGraph parent) {
+        config = parent.config;
+        driver = parent.driver;
+        sessions = parent.sessions;
+        listeners = parent.listeners;
+        metrics = parent.metrics;
+        writeBehindBatchSize = parent.writeBehindBatchSize;
+        scanPageSize = parent.scanPageSize;
+        parallelScanChunkSize = parent.parallelScanChunkSize;
+        prefetchAdjacent = parent.prefetchAdjacent;
+        adjacencyPageSize = parent.adjacencyPageSize;
+        adjacencyMaxPageSize = parent.adjacencyMaxPageSize;
+        autocommitReads = parent.autocommitReads;
+        cacheSize = parent.cacheSize;
+        projection = parent.projection;
+        vertexIndices = parent.vertexIndices;
+        edgeIndices = parent.edgeIndices;
+
+        root = parent.root;
+        openContexts = parent.openContexts;
+        openLoaders = parent.openLoaders;
+        context = newContext(false);
+        threadContext = null;
+
+        vertexWrapper = createCachingVertexWrapper(this, createDefaultVertexWrapper(this));
+        edgeWrapper = createCachingEdgeWrapper(this, createDefaultEdgeWrapper(this));
+    }
 
-        vertexWrapper = createDefaultVertexWrapper(this);
-        edgeWrapper = createDefaultEdgeWrapper(this);
+    /**
+     * Wraps through the identity map so that an element read twice is represented by the same object, which already
+     * carries any local changes made to it.
+     */
+    private static VertexWrapper<Neo4jVertex> createCachingVertexWrapper(final Neo4jGraph graph, final VertexWrapper<Neo4jVertex> wrapper) {
+        return rawVertex -> {
+            Neo4jVertex vertex = graph.getVertexCache().peek(rawVertex.id());
+            if (vertex == null) {
+                vertex = wrapper.wrap(rawVertex);
+                graph.getVertexCache().put(rawVertex.id(), vertex);
+            }
+            return vertex;
+        };
+    }
+
+    private static EdgeWrapper<Neo4jEdge> createCachingEdgeWrapper(final Neo4jGraph graph, final EdgeWrapper<Neo4jEdge> wrapper) {
+        return rawEdge -> {
+            Neo4jEdge edge = graph.getEdgeCache().peek(rawEdge.id());
+            if (edge == null) {
+                edge = wrapper.wrap(rawEdge);
+                graph.getEdgeCache().put(rawEdge.id(), edge);
+            }
+            return edge;
+        };
+    }
+
+    /**
+     * The keys vertices are read with when {@code blueprints.neo4j.projectedKeys} is set, otherwise null. Other
+     * properties of a vertex are loaded on first access.
+     */
+    public Set<String> getProjectedKeys() {
+        return projection == null ? null : projection.getKeys();
+    }
+
+    /**
+     * Rewrites a statement returning whole nodes as {@code variable} to return their projection instead, when
+     * projection is enabled. Read the result with {@link #readNode}.
+     */
+    String project(String statement, String variable) {
+        return projection == null ? statement : projection.apply(statement, variable);
+    }
+
+    /**
+     * Reads a node returned by a statement passed through {@link #project}, starting at the given column.
+     */
+    public Node readNode(Record record, int index) {
+        return projection == null ? record.get(index).asNode() : projection.read(record, index);
+    }
+
+    // Instrumentation
+
+    /**
+     * Reports every statement and transaction of this graph and of the transactions created from it. Transactions
+     * already running are not instrumented.
+     */
+    public void addStatementListener(Neo4jStatementListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeStatementListener(Neo4jStatementListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * The metrics collected with {@code blueprints.neo4j.metrics=true}, otherwise null.
+     */
+    public Neo4jMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void registerMetrics(String url) {
+        try {
+            metricsName = new ObjectName("com.tinkerpop.blueprints.impls.neo4j:type=Neo4jGraph,url=" + ObjectName.quote(url)
+                    + ",instance=" + Integer.toHexString(System.identityHashCode(this)));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, metricsName);
+        } catch (JMException ex) {
+            metricsName = null;
+            logger.warning("Unable to register metrics: " + ex);
+        }
     }
 
     public VertexWrapper<? extends Vertex> getVertexWrapper() {
@@ -124,43 +422,149 @@ public class Neo4jGraph implements KeyIndexableGraph, MetaGraph<Session>, Transa
         return edgeWrapper;
     }
 
+    /**
+     * Identity map of vertices read or written through this graph, enabled by {@code blueprints.neo4j.cacheSize}.
+     * Entries are dropped on rollback; changes made by other clients are not observed while an entry is cached. Each
+     * transaction has its own cache.
+     */
+    public ElementCache<Neo4jVertex> getVertexCache() {
+        return context().vertexCache;
+    }
+
+    public ElementCache<Neo4jEdge> getEdgeCache() {
+        return context().edgeCache;
+    }
+
+    /**
+     * The session of the current transaction. With thread-bound transactions or on a handle from
+     * {@link #newTransaction()} it returns to the pool when the transaction completes.
+     */
     @Override
     public Session getRawGraph() {
-        return session;
+        return context().session();
     }
 
     // KeyIndexableGraph
 
     public static final String NODE_GLOBAL_INDEX = "INDEXED";
     public static final String NODE_GLOBAL_LABEL = "uie_node_type";
+    /**
+     * Label of the index nodes that shadow edges with indexed keys, since the server only indexes node properties.
+     */
+    public static final String EDGE_GLOBAL_INDEX = "INDEXED_EDGE";
+    /**
+     * Property of an edge index node holding the id of its edge.
+     */
+    public static final String EDGE_INDEX_ID = "edge";
+
+    private static final Pattern INDEX_DESCRIPTION = Pattern.compile("INDEX ON :(.+)\\((.+)\\)");
+
+    private final Set<String> vertexIndices;
+    private final Set<String> edgeIndices;
+
+    // The keys indexed by earlier graphs on the same database, read from the schema
+    private void loadIndexedKeys() {
+        try (Session session = driver.session()) {
+            for (Record record : session.run(Statements.LIST_INDEXES).list()) {
+                Matcher matcher = INDEX_DESCRIPTION.matcher(record.get("description").asString());
+                if (!matcher.matches()) {
+                    continue;
+                }
+                String label = unquote(matcher.group(1));
+                String key = unquote(matcher.group(2));
+                if (NODE_GLOBAL_INDEX.equals(label)) {
+                    vertexIndices.add(key);
+                } else if (EDGE_GLOBAL_INDEX.equals(label) && !EDGE_INDEX_ID.equals(key)) {
+                    edgeIndices.add(key);
+                }
+            }
+        } catch (RuntimeException ex) {
+            logger.warning("Unable to load the indexed keys: " + ex.getMessage());
+        }
+    }
 
-    private Set<String> indices = new HashSet();
+    private static String unquote(String name) {
+        return name.length() > 1 && name.startsWith("`") && name.endsWith("`") ? name.substring(1, name.length() - 1) : name;
+    }
 
+    /**
+     * Commits the current transaction first, like {@link #createKeyIndex}.
+     */
     @Override
     public <T extends Element> void dropKeyIndex(String key, Class<T> elementClass) {
-        if (Neo4jVertex.class.isAssignableFrom(elementClass)) {
-            String statement = String.format("drop index on :`%s`(`%s`)", NODE_GLOBAL_INDEX, key);
-            session.run(statement);
-            indices.remove(key);
+        commit();
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            try (Session session = driver.session()) {
+                session.run(Statements.dropIndex(key)).consume();
+            }
+            vertexIndices.remove(key);
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            edgeIndices.remove(key);
+            try (Session session = driver.session()) {
+                session.run(Statements.dropEdgeIndex(key)).consume();
+                // The index nodes go with the last indexed key
+                session.run(edgeIndices.isEmpty() ? Statements.DELETE_EDGE_INDEX_NODES : Statements.unindexEdges(key)).consume();
+            }
         } else {
-            throw new UnsupportedOperationException("Cannot drop index for " + elementClass.getName());
+            throw ExceptionFactory.classIsNotIndexable(elementClass);
         }
     }
 
+    /**
+     * Indexes a key of vertices or edges. Vertex keys are indexed on the {@value #NODE_GLOBAL_INDEX} label. Edge keys
+     * are indexed on {@value #EDGE_GLOBAL_INDEX} nodes, one per edge holding its indexed values, which this graph
+     * creates for existing edges here and keeps up to date as edges are written through it. Commits the current
+     * transaction first, as the server holds schema changes back until open transactions end.
+     */
     @Override
     public <T extends Element> void createKeyIndex(String key, Class<T> elementClass, Parameter... indexParameters) {
-        if (Neo4jVertex.class.isAssignableFrom(elementClass)) {
-            String statement = String.format("create index on :`%s`(`%s`)", NODE_GLOBAL_INDEX, key);
-            session.run(statement);
-            indices.add(key);
+        commit();
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            try (Session session = driver.session()) {
+                session.run(Statements.createIndex(key)).consume();
+            }
+            vertexIndices.add(key);
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            try (Session session = driver.session()) {
+                session.run(Statements.CREATE_EDGE_INDEX_CONSTRAINT).consume();
+                session.run(Statements.createEdgeIndex(key)).consume();
+                edgeIndices.add(key);
+                session.run(Statements.indexEdges(key)).consume();
+            }
         } else {
-            throw new UnsupportedOperationException("Cannot create index for " + elementClass.getName());
+            throw ExceptionFactory.classIsNotIndexable(elementClass);
         }
     }
 
     @Override
     public <T extends Element> Set<String> getIndexedKeys(Class<T> elementClass) {
-        return indices;
+        if (Vertex.class.isAssignableFrom(elementClass)) {
+            return Collections.unmodifiableSet(vertexIndices);
+        } else if (Edge.class.isAssignableFrom(elementClass)) {
+            return Collections.unmodifiableSet(edgeIndices);
+        }
+        throw ExceptionFactory.classIsNotIndexable(elementClass);
+    }
+
+    // Statements that keep the edge index nodes up to date, once any edge key is indexed
+
+    String setEdgeProperties(String key, Object value) {
+        if (!edgeIndices.contains(key)) {
+            return Statements.SET_EDGE_PROPERTIES;
+        }
+        return value == null ? Statements.UNSET_INDEXED_EDGE_PROPERTIES : Statements.SET_INDEXED_EDGE_PROPERTIES;
+    }
+
+    String removeEdgeStatement() {
+        return edgeIndices.isEmpty() ? Statements.REMOVE_EDGE : Statements.REMOVE_INDEXED_EDGE;
+    }
+
+    String removeVertexStatement() {
+        return edgeIndices.isEmpty() ? Statements.REMOVE_VERTEX : Statements.REMOVE_INDEXED_VERTEX;
+    }
+
+    String edgesByKey(String key) {
+        return edgeIndices.contains(key) ? Statements.getEdgesByIndexedKey(key) : Statements.getEdgesByKey(key);
     }
 
     // TransactionalGraph
@@ -176,20 +580,31 @@ public class Neo4jGraph implements KeyIndexableGraph, MetaGraph<Session>, Transa
 
     @Override
     public void commit() {
-        tx.ifPresent(tx -> {
-            tx.success();
-            tx.close();
-        });
-        tx = Optional.empty();
+        flush();
+        context().complete(true);
     }
 
     @Override
     public void rollback() {
-        tx.ifPresent(tx -> {
-            tx.failure();
-            tx.close();
-        });
-        tx = Optional.empty();
+        TransactionContext ctx = context();
+        if (ctx.mutations != null) {
+            ctx.mutations.clear();
+        }
+        ctx.vertexCache.clear();
+        ctx.edgeCache.clear();
+        ctx.complete(false);
+    }
+
+    // ThreadedTransactionalGraph
+
+    /**
+     * Starts a transaction that is independent of this graph's and of the calling thread. The handle shares the
+     * driver and session pool, and takes a session from the pool on its first statement until it is committed or
+     * rolled back. It can be reused for further transactions; {@code shutdown()} on it only ends its transaction.
+     */
+    @Override
+    public TransactionalGraph newTransaction() {
+        return new Neo4jGraph(this);
     }
 
     @Override
@@ -199,10 +614,17 @@ public class Neo4jGraph implements KeyIndexableGraph, MetaGraph<Session>, Transa
 
     @Override
     public Vertex addVertex(Object id) {
-        String statement = String.format("create (n:`%s`) return n", NODE_GLOBAL_INDEX);
-        StatementResult result = withTx().run(statement);
+        MutationBuffer mutations = getMutationBuffer();
+        if (mutations != null) {
+            Node node = new InternalNode(Neo4jElement.UNSAVED_ID, Collections.singletonList(NODE_GLOBAL_INDEX), Collections.emptyMap());
+            Neo4jVertex vertex = new Neo4jVertex(node, this);
+            mutations.addVertex(vertex);
+            flushIfFull();
+            return vertex;
+        }
+        StatementResult result = withTx().run(Statements.CREATE_VERTEX);
         Node node = result.single().get(0).asNode();
-        return new Neo4jVertex(node, this);
+        return vertexWrapper.wrap(node);
     }
 
     @Override
@@ -210,31 +632,64 @@ public class Neo4jGraph implements KeyIndexableGraph, MetaGraph<Session>, Transa
         if (null == id) {
             throw ExceptionFactory.vertexIdCanNotBeNull();
         }
-        StatementResult result = withTx().run("match (n) where id(n) = {id} return n", Values.parameters("id", id));
+        if (id instanceof Number) {
+            Neo4jVertex cached = getVertexCache().get(((Number) id).longValue());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        StatementResult result = forRead().run(project(Statements.GET_VERTEX, "n"), Values.parameters("id", id));
         if (result.hasNext()) {
-            Node node = result.single().get(0).asNode();
-            return new Neo4jVertex(node, this);
+            Node node = readNode(result.single(), 0);
+            return vertexWrapper.wrap(node);
         }
         return null;
     }
 
     @Override
     public void removeVertex(Vertex vertex) {
-        withTx().run("match (n) where id(n) = {id} detach delete n", Values.parameters("id", vertex.getId()));
+        long id = Neo4jElement.longId(vertex);
+        withTx().run(removeVertexStatement(), Values.parameters("id", id));
+        getVertexCache().remove(id);
+        getEdgeCache().removeIf(edge -> edge.getRawElement().startNodeId() == id || edge.getRawElement().endNodeId() == id);
     }
 
     @Override
     public Iterable<Vertex> getVertices() {
-        StatementResult result = withTx().run("match (n) return n");
-        return new VertexIterable(result.list(record -> record.get(0).asNode()), this);
+        if (scanPageSize > 0) {
+            return new VertexIterable(new PagedCursor<>(sessions, project(Statements.PAGE_VERTICES, "n"), record -> readNode(record, 0), scanPageSize, getExecutor()), this);
+        }
+        StatementResult result = forRead().run(project(Statements.SCAN_VERTICES, "n"));
+        return new VertexIterable(result, this);
     }
 
     @Override
     public Iterable<Vertex> getVertices(String key, Object value) {
-        String statement = String.format("match (n:`%s`) where n.`%s` = {value} return n", NODE_GLOBAL_INDEX, key);
         Value params = Values.parameters("value", value);
-        StatementResult result = withTx().run(statement, params);
-        return new VertexIterable(result.list(record -> record.get(0).asNode()), this);
+        StatementResult result = forRead().run(project(Statements.getVerticesByKey(key), "n"), params);
+        return new VertexIterable(result, this);
+    }
+
+    /**
+     * The vertices with the given label, such as those typed through {@link #NODE_GLOBAL_LABEL}, read from the label
+     * scan store rather than by a scan of all nodes. Paged like {@link #getVertices()} when a scan page size is set.
+     */
+    public Iterable<Vertex> getVerticesByLabel(String label) {
+        if (scanPageSize > 0) {
+            return new VertexIterable(new PagedCursor<>(sessions, project(Statements.pageVerticesByLabel(label), "n"), record -> readNode(record, 0), scanPageSize, getExecutor()), this);
+        }
+        StatementResult result = forRead().run(project(Statements.getVerticesByLabel(label), "n"));
+        return new VertexIterable(result, this);
+    }
+
+    /**
+     * The vertices with the given label holding the given value, which the server seeks through an index on the key
+     * for that label if there is one, and otherwise finds among the vertices with the label only.
+     */
+    public Iterable<Vertex> getVertices(String label, String key, Object value) {
+        Value params = Values.parameters("value", value);
+        StatementResult result = forRead().run(project(Statements.getVerticesByLabelAndKey(label, key), "n"), params);
+        return new VertexIterable(result, this);
     }
 
     @Override
@@ -242,57 +697,304 @@ public class Neo4jGraph implements KeyIndexableGraph, MetaGraph<Session>, Transa
         if (label == null) {
             throw ExceptionFactory.edgeLabelCanNotBeNull();
         }
-        String statement = String.format("match (a), (b) where id(a) = {ida} and id(b) = {idb} create (a)-[r:`%s`]->(b) return r", label);
+        MutationBuffer mutations = getMutationBuffer();
+        if (mutations != null) {
+            Relationship rel = new InternalRelationship(Neo4jElement.UNSAVED_ID, Neo4jElement.UNSAVED_ID, Neo4jElement.UNSAVED_ID, label);
+            Neo4jEdge edge = new Neo4jEdge(rel, this);
+            edge.attachVertices(outVertex, inVertex);
+            mutations.addEdge(edge, outVertex, inVertex);
+            flushIfFull();
+            return edge;
+        }
         Value params = Values.parameters("ida", outVertex.getId(), "idb", inVertex.getId());
-        StatementResult result = withTx().run(statement, params);
+        StatementResult result = withTx().run(Statements.createEdge(label), params);
         Relationship rel = result.single().get(0).asRelationship();
-        return new Neo4jEdge(rel, this);
+        Edge edge = edgeWrapper.wrap(rel);
+        if (edge instanceof Neo4jEdge) {
+            ((Neo4jEdge) edge).attachVertices(outVertex, inVertex);
+        }
+        return edge;
     }
 
     @Override
     public Edge getEdge(Object id) {
-        StatementResult result = withTx().run("match ()-[r]->() where id(r) = {id} return r", Values.parameters("id", id));
+        if (null == id) {
+            throw ExceptionFactory.edgeIdCanNotBeNull();
+        }
+        if (id instanceof Number) {
+            Neo4jEdge cached = getEdgeCache().get(((Number) id).longValue());
+            if (cached != null) {
+                return cached;
+            }
+        }
+        StatementResult result = forRead().run(Statements.GET_EDGE, Values.parameters("id", id));
         if (result.hasNext()) {
-            result.single().get(0).asRelationship();
+            return edgeWrapper.wrap(result.single().get(0).asRelationship());
         }
         return null;
     }
 
     @Override
     public void removeEdge(Edge edge) {
-        withTx().run("match ()-[r]->() where id(r) = {id} delete r", Values.parameters("id", edge.getId()));
+        long id = Neo4jElement.longId(edge);
+        withTx().run(removeEdgeStatement(), Values.parameters("id", id));
+        getEdgeCache().remove(id);
     }
 
     @Override
     public Iterable<Edge> getEdges() {
-        StatementResult result = withTx().run("match ()-[r]-() return r");
-        return new EdgeIterable(result.list(record -> record.get(0).asRelationship()), this);
+        if (scanPageSize > 0) {
+            return new EdgeIterable(new PagedCursor<>(sessions, Statements.PAGE_EDGES, record -> record.get(0).asRelationship(), scanPageSize, getExecutor()), this);
+        }
+        StatementResult result = forRead().run(Statements.SCAN_EDGES);
+        return new EdgeIterable(result, this);
     }
 
     @Override
     public Iterable<Edge> getEdges(String key, Object value) {
-        String statement = String.format("match ()-[r]-() where r.`%s` = {value} return r", key);
         Value params = Values.parameters("value", value);
-        StatementResult result = withTx().run(statement, params);
-        return new EdgeIterable(result.list(record -> record.get(0).asRelationship()), this);
+        StatementResult result = forRead().run(edgesByKey(key), params);
+        return new EdgeIterable(result, this);
+    }
+
+    // Multi-get
+
+    /**
+     * Resolves many vertex ids with a single statement. The result has one entry per id in input order, null where
+     * no such vertex exists.
+     */
+    public List<Vertex> getVertices(Collection<?> ids) {
+        List<Vertex> vertices = new ArrayList<>(ids.size());
+        // Repeated ids are only sent once
+        LongHashSet missing = new LongHashSet(ids.size());
+        for (Object id : ids) {
+            Neo4jVertex cached = id instanceof Number ? getVertexCache().get(((Number) id).longValue()) : null;
+            if (cached == null && id instanceof Number) {
+                missing.add(((Number) id).longValue());
+            }
+            vertices.add(cached);
+        }
+        if (!missing.isEmpty()) {
+            StatementResult result = forRead().run(project(Statements.GET_VERTICES, "n"), Values.parameters("ids", missing.toArray()));
+            Map<Long, Vertex> found = new HashMap<>();
+            result.forEachRemaining(record -> {
+                Node node = readNode(record, 0);
+                found.put(node.id(), vertexWrapper.wrap(node));
+            });
+            int i = 0;
+            for (Object id : ids) {
+                if (vertices.get(i) == null && id instanceof Number) {
+                    vertices.set(i, found.get(((Number) id).longValue()));
+                }
+                i++;
+            }
+        }
+        return vertices;
+    }
+
+    /**
+     * Resolves many edge ids with a single statement. The result has one entry per id in input order, null where no
+     * such edge exists.
+     */
+    public List<Edge> getEdges(Collection<?> ids) {
+        List<Edge> edges = new ArrayList<>(ids.size());
+        LongHashSet missing = new LongHashSet(ids.size());
+        for (Object id : ids) {
+            Neo4jEdge cached = id instanceof Number ? getEdgeCache().get(((Number) id).longValue()) : null;
+            if (cached == null && id instanceof Number) {
+                missing.add(((Number) id).longValue());
+            }
+            edges.add(cached);
+        }
+        if (!missing.isEmpty()) {
+            StatementResult result = forRead().run(Statements.GET_EDGES, Values.parameters("ids", missing.toArray()));
+            Map<Long, Edge> found = new HashMap<>();
+            result.forEachRemaining(record -> {
+                Relationship rel = record.get(0).asRelationship();
+                found.put(rel.id(), edgeWrapper.wrap(rel));
+            });
+            int i = 0;
+            for (Object id : ids) {
+                if (edges.get(i) == null && id instanceof Number) {
+                    edges.set(i, found.get(((Number) id).longValue()));
+                }
+                i++;
+            }
+        }
+        return edges;
+    }
+
+    /**
+     * Finds the vertices holding each of many values of a key with a single statement, seeking the
+     * {@value #NODE_GLOBAL_INDEX} index when the key is indexed. The result maps each distinct value, in input order,
+     * to its vertices, which are empty where no vertex holds the value.
+     */
+    public Map<Object, List<Vertex>> getVerticesByValues(String key, Collection<?> values) {
+        return lookup(Collections.singleton(key), values, value -> Collections.singletonMap(key, value));
+    }
+
+    /**
+     * Finds the vertices matching each of many combinations of key values with a single statement, seeking the
+     * {@value #NODE_GLOBAL_INDEX} index when any of the keys is indexed. All combinations must have the same keys. The
+     * result maps each distinct combination, in input order, to its vertices.
+     */
+    public <M extends Map<String, ?>> Map<M, List<Vertex>> getVerticesByProperties(Collection<M> lookups) {
+        if (lookups.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Set<String> keys = lookups.iterator().next().keySet();
+        if (keys.isEmpty() || lookups.stream().anyMatch(lookup -> !keys.equals(lookup.keySet()))) {
+            throw new IllegalArgumentException("All lookups must have the same non-empty set of keys");
+        }
+        return lookup(keys, lookups, lookup -> lookup);
+    }
+
+    /**
+     * The vertices holding all the given property values.
+     */
+    public List<Vertex> getVertices(Map<String, ?> properties) {
+        return getVerticesByProperties(Collections.singletonList(properties)).get(properties);
+    }
+
+    private <T> Map<T, List<Vertex>> lookup(Set<String> keys, Collection<? extends T> lookups, Function<T, Map<String, ?>> properties) {
+        Map<T, List<Vertex>> found = new LinkedHashMap<>();
+        List<List<Vertex>> byRow = new ArrayList<>();
+        List<Object> rows = new ArrayList<>();
+        // Repeated lookups are only sent once
+        for (T lookup : lookups) {
+            if (!found.containsKey(lookup)) {
+                List<Vertex> vertices = new ArrayList<>(1);
+                found.put(lookup, vertices);
+                byRow.add(vertices);
+                Map<String, Object> row = new HashMap<>();
+                row.put("i", rows.size());
+                row.put("v", properties.apply(lookup));
+                rows.add(row);
+            }
+        }
+        if (!rows.isEmpty()) {
+            boolean indexed = keys.stream().anyMatch(vertexIndices::contains);
+            StatementResult result = forRead().run(project(Statements.lookupVertices(keys, indexed), "n"), Values.parameters("rows", rows));
+            result.forEachRemaining(record -> byRow.get(record.get(0).asInt()).add(vertexWrapper.wrap(readNode(record, 1))));
+        }
+        return found;
+    }
+
+    /**
+     * Counts the edges of many vertices with a single statement, without fetching them. The result has one count
+     * per vertex in input order.
+     */
+    public long[] countEdges(List<? extends Vertex> vertices, Direction direction, String... labels) {
+        long[] ids = new long[vertices.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = Neo4jElement.longId(vertices.get(i));
+        }
+        LongLongHashMap degrees = new LongLongHashMap(ids.length);
+        forRead().run(Statements.degrees(direction, labels == null ? new String[0] : labels), Values.parameters("ids", ids))
+                .forEachRemaining(record -> degrees.put(record.get(0).asLong(), record.get(1).asLong()));
+        long[] counts = new long[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            counts[i] = degrees.get(ids[i], 0);
+        }
+        return counts;
+    }
+
+    /**
+     * Detach-deletes many vertices with a single statement.
+     */
+    public void removeVertices(Collection<? extends Vertex> vertices) {
+        LongHashSet ids = new LongHashSet(vertices.size());
+        for (Vertex vertex : vertices) {
+            ids.add(Neo4jElement.longId(vertex));
+        }
+        String statement = edgeIndices.isEmpty() ? Statements.REMOVE_VERTICES : Statements.REMOVE_INDEXED_VERTICES;
+        withTx().run(statement, Values.parameters("ids", ids.toArray()));
+        ids.forEach(getVertexCache()::remove);
+        getEdgeCache().removeIf(edge -> ids.contains(edge.getRawElement().startNodeId()) || ids.contains(edge.getRawElement().endNodeId()));
+    }
+
+    // Parallel scans
+
+    /**
+     * Splits the node id space into ranges that are read on separate pooled sessions. Like paged scans, only committed data
+     * is visible. Elements are not shared with the element cache.
+     */
+    public Spliterator<Vertex> vertexSpliterator() {
+        long end = maxId(Statements.MAX_VERTEX_ID) + 1;
+        return new IdRangeSpliterator<>(sessions, project(Statements.RANGE_VERTICES, "n"), record -> readNode(record, 0), createDefaultVertexWrapper(this), 0, end, parallelScanChunkSize);
+    }
+
+    public Spliterator<Edge> edgeSpliterator() {
+        long end = maxId(Statements.MAX_EDGE_ID) + 1;
+        return new IdRangeSpliterator<>(sessions, Statements.RANGE_EDGES, record -> record.get(0).asRelationship(), createDefaultEdgeWrapper(this), 0, end, parallelScanChunkSize);
+    }
+
+    public Stream<Vertex> parallelVertices() {
+        return StreamSupport.stream(vertexSpliterator(), true);
+    }
+
+    public Stream<Edge> parallelEdges() {
+        return StreamSupport.stream(edgeSpliterator(), true);
+    }
+
+    private long maxId(String statement) {
+        Value max = sessions.withSession(session -> session.run(statement).single().get(0));
+        return max.isNull() ? -1 : max.asLong();
+    }
+
+    /**
+     * A multi-hop traversal starting at all the given vertices at once, run as a single statement.
+     */
+    public Neo4jTraversal traverse(Vertex... startVertices) {
+        List<Object> ids = new ArrayList<>(startVertices.length);
+        for (Vertex vertex : startVertices) {
+            ids.add(vertex.getId());
+        }
+        return new Neo4jTraversal(this, ids);
     }
 
     @Override
     public GraphQuery query() {
-        return new DefaultGraphQuery(this);
+        return new Neo4jGraphQuery(this);
     }
 
     @Override
     public void shutdown() {
         commit();
-        if ( session != null )
+        if ( context != null )
+        {
+            context.close();
+        }
+        if ( root != this )
         {
-            session.close();
+            return;
         }
+        for ( Neo4jBulkLoader loader : openLoaders )
+        {
+            loader.abort();
+        }
+        // Transactions left open by other threads or handles are rolled back before their sessions go away
+        for ( TransactionContext open : openContexts )
+        {
+            open.close(false);
+        }
+        sessions.close();
         if ( driver != null )
         {
             driver.close();
         }
+        if ( executor != null )
+        {
+            executor.shutdownNow();
+        }
+        if ( metricsName != null )
+        {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(metricsName);
+            } catch (JMException ex) {
+                logger.warning("Unable to unregister metrics: " + ex);
+            }
+        }
     }
 
 }
@@ -0,0 +1,96 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Compare;
+import com.tinkerpop.blueprints.Contains;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.neo4j.iterable.EdgeIterable;
+import com.tinkerpop.blueprints.impls.neo4j.iterable.VertexIterable;
+import com.tinkerpop.blueprints.util.DefaultGraphQuery;
+import org.neo4j.driver.v1.StatementResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.Set;
+
+/**
+ * Graph query that runs as a single Cypher statement, filtering and limiting on the server.
+ */
+public class Neo4jGraphQuery extends DefaultGraphQuery {
+
+    public Neo4jGraphQuery(final Neo4jGraph graph) {
+        super(graph);
+    }
+
+    @Override
+    public Iterable<Vertex> vertices() {
+        Neo4jGraph graphDb = (Neo4jGraph) graph;
+        Map<String, Object> params = new HashMap<>();
+        QueryPredicates predicates = new QueryPredicates(containers(), "n", false, params);
+
+        StringBuilder sb = new StringBuilder("match (n");
+        if (usesIndex(graphDb.getIndexedKeys(Vertex.class))) {
+            sb.append(":`").append(Neo4jGraph.NODE_GLOBAL_INDEX).append("`)");
+            predicates.appendWhere(sb, " where ");
+        } else {
+            sb.append(") where not n:`").append(Neo4jGraph.EDGE_GLOBAL_INDEX).append("`");
+            predicates.appendWhere(sb, " and ");
+        }
+        sb.append(" return n");
+        predicates.appendLimit(sb, limit);
+
+        StatementResult result = graphDb.forRead().run(graphDb.project(sb.toString(), "n"), params);
+        VertexIterable vertices = new VertexIterable(result, graphDb);
+        return predicates.isComplete() ? vertices : predicates.filter(vertices, limit);
+    }
+
+    @Override
+    public Iterable<Edge> edges() {
+        Neo4jGraph graphDb = (Neo4jGraph) graph;
+        Map<String, Object> params = new HashMap<>();
+        QueryPredicates predicates = new QueryPredicates(containers(), "r", true, params);
+
+        StringBuilder sb = new StringBuilder();
+        HasContainer seek = indexSeek(graphDb.getIndexedKeys(Edge.class));
+        if (seek != null) {
+            // The edge index node is matched first, the predicates still check the edge itself
+            sb.append("match (x:`").append(Neo4jGraph.EDGE_GLOBAL_INDEX).append("`) where x.`").append(seek.key)
+                    .append("` = {indexValue} match ()-[r]->() where id(r) = x.`").append(Neo4jGraph.EDGE_INDEX_ID).append("`");
+            params.put("indexValue", seek.value);
+            predicates.appendWhere(sb, " and ");
+        } else {
+            sb.append("match ()-[r]->()");
+            predicates.appendWhere(sb, " where ");
+        }
+        sb.append(" return r");
+        predicates.appendLimit(sb, limit);
+
+        StatementResult result = graphDb.forRead().run(sb.toString(), params);
+        EdgeIterable edges = new EdgeIterable(result, graphDb);
+        return predicates.isComplete() ? edges : predicates.filter(edges, limit);
+    }
+
+    /**
+     * Vertices are only guaranteed to carry the index label when they were created through this graph, so the label
+     * is only used when a predicate on an indexed key lets the server seek the index.
+     */
+    private boolean usesIndex(Set<String> indexedKeys) {
+        return hasContainers.stream().anyMatch(container -> container.value != null && indexedKeys.contains(container.key)
+                && ((container.predicate instanceof Compare && container.predicate != Compare.NOT_EQUAL) || container.predicate == Contains.IN));
+    }
+
+    private HasContainer indexSeek(Set<String> indexedKeys) {
+        return hasContainers.stream()
+                .filter(container -> container.value != null && container.predicate == Compare.EQUAL && indexedKeys.contains(container.key))
+                .findFirst().orElse(null);
+    }
+
+    private List<QueryPredicates.Container> containers() {
+        return hasContainers.stream()
+                .map(container -> new QueryPredicates.Container(container.key, container.predicate, container.value, container::isLegal))
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import java.util.Map;
+
+/**
+ * JMX view of {@link Neo4jMetrics}. Per-statement attributes are keyed by statement template; latencies are in
+ * milliseconds.
+ */
+public interface Neo4jMetricsMXBean {
+
+    long getStatementCount();
+
+    long getRowCount();
+
+    long getErrorCount();
+
+    long getTransactionCount();
+
+    long getRollbackCount();
+
+    double getTransactionMeanMillis();
+
+    double getTransactionP99Millis();
+
+    double getStatementsPerTransactionMean();
+
+    Map<String, Long> getCallCounts();
+
+    Map<String, Long> getRowCounts();
+
+    Map<String, Double> getMeanLatencyMillis();
+
+    Map<String, Double> getP99LatencyMillis();
+
+    void reset();
+
+}
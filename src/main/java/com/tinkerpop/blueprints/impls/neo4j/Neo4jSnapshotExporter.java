@@ -0,0 +1,58 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.impls.neo4j.snapshot.SnapshotGraph;
+import com.tinkerpop.blueprints.impls.neo4j.snapshot.SnapshotWriter;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Session;
+import org.neo4j.driver.v1.StatementResult;
+import org.neo4j.driver.v1.Transaction;
+import org.neo4j.driver.v1.Value;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Exports the structure of the database, vertex ids and labels and edges without properties, into a snapshot file
+ * that a {@link SnapshotGraph} reads through memory-mapped buffers. Vertices and edges are each streamed once by a
+ * single statement, both in one read transaction on a session of its own, so the snapshot is consistent and
+ * independent of the graph's transaction.
+ */
+public class Neo4jSnapshotExporter {
+
+    private final SessionPool sessions;
+    private final StatementListeners listeners;
+
+    public Neo4jSnapshotExporter(final Neo4jGraph graph) {
+        this.sessions = graph.sessions;
+        this.listeners = graph.listeners;
+    }
+
+    public void export(Path file) throws IOException {
+        Session session = sessions.acquire();
+        try (SnapshotWriter writer = new SnapshotWriter(file); Transaction tx = listeners.wrap(session.beginTransaction())) {
+            StatementResult vertices = tx.run(Statements.SNAPSHOT_VERTICES);
+            while (vertices.hasNext()) {
+                Record record = vertices.next();
+                writer.addNode(record.get(0).asLong(), record.get(1).asList(Value::asString));
+            }
+            StatementResult edges = tx.run(Statements.SNAPSHOT_EDGES);
+            while (edges.hasNext()) {
+                Record record = edges.next();
+                writer.addEdge(record.get(0).asLong(), record.get(1).asLong(), record.get(2).asLong(), record.get(3).asString());
+            }
+            tx.success();
+            writer.finish();
+        } finally {
+            sessions.release(session);
+        }
+    }
+
+    /**
+     * Exports a snapshot and opens it.
+     */
+    public SnapshotGraph snapshot(Path file) throws IOException {
+        export(file);
+        return new SnapshotGraph(file);
+    }
+
+}
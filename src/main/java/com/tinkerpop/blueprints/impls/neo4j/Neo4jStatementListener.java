@@ -0,0 +1,32 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import java.util.Map;
+
+/**
+ * Observes the statements and transactions a graph sends, see {@link Neo4jGraph#addStatementListener}. Callbacks run
+ * synchronously on the thread that completed the statement or transaction, so they should be cheap and must not call
+ * back into the graph.
+ */
+public interface Neo4jStatementListener {
+
+    /**
+     * A statement has been fully read, closed unread with its transaction, or has failed.
+     *
+     * @param statement  the statement text, which for all statements the graph builds itself is a template
+     * @param parameters the parameters it was sent with; they may hold user data
+     * @param nanos      time from sending the statement to reading its last row
+     * @param rows       rows read by the caller
+     * @param error      the failure, or null
+     */
+    default void statementCompleted(String statement, Map<String, Object> parameters, long nanos, long rows, Throwable error) {
+    }
+
+    /**
+     * A transaction has been committed or rolled back.
+     *
+     * @param statements statements run in the transaction
+     */
+    default void transactionCompleted(boolean committed, long nanos, int statements) {
+    }
+
+}
@@ -0,0 +1,187 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.neo4j.iterable.RecordIterable;
+import com.tinkerpop.blueprints.impls.neo4j.iterable.VertexIterable;
+import org.neo4j.driver.v1.StatementResult;
+import org.neo4j.driver.v1.Value;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Multi-hop walk from one or more start vertices, compiled to a single Cypher pattern and answered in one round trip.
+ * Steps follow edges out, in or both ways, optionally restricted to some labels, and {@link #times} repeats the steps
+ * before it, which later steps then follow once. A single repeated step becomes a variable-length relationship,
+ * anything else a chained pattern.
+ * <p>
+ * As in any Cypher match an edge is followed at most once per path, and every path is returned unless
+ * {@link #dedup()} is set, so a vertex reached along several paths is returned once per path.
+ */
+public class Neo4jTraversal {
+
+    private static class Step {
+        final Direction direction;
+        final String[] labels;
+
+        Step(Direction direction, String[] labels) {
+            this.direction = direction;
+            this.labels = labels;
+        }
+    }
+
+    private final Neo4jGraph graphDb;
+    private final List<Object> startIds;
+    private final List<Step> steps = new ArrayList<>();
+    // Steps before the last call to times, or -1 when all are taken once
+    private int repeatedSteps = -1;
+    private int minTimes = 1;
+    private int maxTimes = 1;
+    private boolean dedup;
+    private int limit = Integer.MAX_VALUE;
+
+    Neo4jTraversal(final Neo4jGraph graphDb, final List<Object> startIds) {
+        this.graphDb = graphDb;
+        this.startIds = startIds;
+    }
+
+    public Neo4jTraversal out(String... labels) {
+        return step(Direction.OUT, labels);
+    }
+
+    public Neo4jTraversal in(String... labels) {
+        return step(Direction.IN, labels);
+    }
+
+    public Neo4jTraversal both(String... labels) {
+        return step(Direction.BOTH, labels);
+    }
+
+    public Neo4jTraversal step(Direction direction, String... labels) {
+        steps.add(new Step(direction, labels == null ? new String[0] : labels));
+        return this;
+    }
+
+    /**
+     * Repeats the steps so far exactly {@code times} times. Steps added afterwards are taken once, after the
+     * repetitions.
+     */
+    public Neo4jTraversal times(int times) {
+        return times(times, times);
+    }
+
+    /**
+     * Returns the vertices reached after {@code min} up to {@code max} repetitions of the steps, for instance the
+     * neighbourhood of the start vertices up to a depth. Ranges are only supported for a single step before them.
+     */
+    public Neo4jTraversal times(int min, int max) {
+        if (min < 0 || max < min) {
+            throw new IllegalArgumentException("Invalid repetition range " + min + ".." + max);
+        }
+        if (steps.isEmpty()) {
+            throw new IllegalStateException("Repetitions need a step before them");
+        }
+        if (min != max && steps.size() != 1) {
+            throw new IllegalArgumentException("A range of repetitions needs exactly one step");
+        }
+        repeatedSteps = steps.size();
+        minTimes = min;
+        maxTimes = max;
+        return this;
+    }
+
+    /**
+     * Returns each vertex, or each path, once.
+     */
+    public Neo4jTraversal dedup() {
+        dedup = true;
+        return this;
+    }
+
+    public Neo4jTraversal limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * The vertices the traversal ends on, streamed as they arrive.
+     */
+    public Iterable<Vertex> vertices() {
+        Map<String, Object> params = new HashMap<>();
+        String statement = graphDb.project(statement(false, params, dedup ? " return distinct b" : " return b"), "b");
+        return new VertexIterable(graphDb.forRead().run(statement, params), graphDb);
+    }
+
+    /**
+     * The vertices along each path, from the start vertex to the one the traversal ends on.
+     */
+    public Iterable<List<Vertex>> paths() {
+        Map<String, Object> params = new HashMap<>();
+        StatementResult result = graphDb.forRead().run(statement(true, params, dedup ? " return distinct nodes(p)" : " return nodes(p)"), params);
+        return new RecordIterable<>(result, record -> record.get(0).asList(Value::asNode).stream()
+                .map(node -> (Vertex) graphDb.getVertexWrapper().wrap(node)).collect(Collectors.toList()));
+    }
+
+    public long count() {
+        Map<String, Object> params = new HashMap<>();
+        String returns = limit == Integer.MAX_VALUE
+                ? (dedup ? " return count(distinct b)" : " return count(b)")
+                : (dedup ? " with distinct b" : " with b") + " limit {limit} return count(b)";
+        return graphDb.forRead().run(statement(false, params, returns), params).single().get(0).asLong();
+    }
+
+    private String statement(boolean path, Map<String, Object> params, String returns) {
+        if (steps.isEmpty()) {
+            throw new IllegalStateException("A traversal needs at least one step");
+        }
+        StringBuilder sb = new StringBuilder("match ");
+        if (path) {
+            sb.append("p = ");
+        }
+        sb.append("(a)");
+        int repeated = repeatedSteps < 0 ? steps.size() : repeatedSteps;
+        if (repeated == 1 && (minTimes != 1 || maxTimes != 1)) {
+            appendStep(sb, steps.get(0), "*" + minTimes + ".." + maxTimes);
+        } else if (maxTimes == 0) {
+            // Zero repetitions end where they start
+            sb.append("-[*0..0]-");
+        } else {
+            for (int i = 0; i < maxTimes; i++) {
+                for (int j = 0; j < repeated; j++) {
+                    if (i > 0 || j > 0) {
+                        sb.append("()");
+                    }
+                    appendStep(sb, steps.get(j), "");
+                }
+            }
+        }
+        for (int j = repeated; j < steps.size(); j++) {
+            sb.append("()");
+            appendStep(sb, steps.get(j), "");
+        }
+        sb.append("(b) where id(a) in {ids}").append(returns);
+        params.put("ids", startIds);
+        if (limit != Integer.MAX_VALUE) {
+            params.put("limit", limit);
+            if (!returns.contains("{limit}")) {
+                sb.append(" limit {limit}");
+            }
+        }
+        return sb.toString();
+    }
+
+    private static void appendStep(StringBuilder sb, Step step, String length) {
+        sb.append(step.direction == Direction.IN ? "<-[" : "-[");
+        String separator = ":";
+        for (String label : step.labels) {
+            sb.append(separator).append('`').append(label).append('`');
+            separator = "|";
+        }
+        sb.append(length).append(step.direction == Direction.OUT ? "]->" : "]-");
+    }
+
+}
@@ -4,21 +4,20 @@ import com.tinkerpop.blueprints.Direction;
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.VertexQuery;
-import com.tinkerpop.blueprints.impls.neo4j.iterable.EdgeIterable;
-import com.tinkerpop.blueprints.impls.neo4j.iterable.VertexIterable;
-import com.tinkerpop.blueprints.util.DefaultVertexQuery;
 import com.tinkerpop.blueprints.util.ElementHelper;
 import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.Value;
 import org.neo4j.driver.v1.Values;
 import org.neo4j.driver.v1.types.Node;
 
+import java.util.Collections;
 import java.util.Set;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 public class Neo4jVertex extends Neo4jElement<Node> implements Vertex {
 
+    private Node labelViewOf;
+    private Set<String> labelView;
+
     public Neo4jVertex(Node node, final Neo4jGraph graphDb) {
         super(graphDb);
         this.rawElement = node;
@@ -29,25 +28,7 @@ public class Neo4jVertex extends Neo4jElement<Node> implements Vertex {
         if (labels == null) {
             labels = new String[0];
         }
-
-        StringBuilder sb = new StringBuilder("match (n)");
-        if (direction == Direction.IN) {
-            sb.append("<");
-        }
-        sb.append("-[r]-");
-        if (direction == Direction.OUT) {
-            sb.append(">");
-        }
-        sb.append("() where id(n) = {id} ");
-        if (labels.length > 0) {
-            sb.append("and type(r) in {relTypes} ");
-        }
-        sb.append(" return r");
-
-        Value params = Values.parameters("id", getId(), "relTypes", labels);
-
-        StatementResult result = graphDb.withTx().run(sb.toString(), params);
-        return new EdgeIterable(result.list(record -> record.get(0).asRelationship()), graphDb);
+        return query().direction(direction).labels(labels).edges();
     }
 
     @Override
@@ -55,30 +36,28 @@ public class Neo4jVertex extends Neo4jElement<Node> implements Vertex {
         if (labels == null) {
             labels = new String[0];
         }
-
-        StringBuilder sb = new StringBuilder("match (a)");
-        if (direction == Direction.IN) {
-            sb.append("<");
-        }
-        sb.append("-[r]-");
-        if (direction == Direction.OUT) {
-            sb.append(">");
-        }
-        sb.append("(b) where id(a) = {id} ");
-        if (labels.length > 0) {
-            sb.append("and type(r) in {relTypes} ");
-        }
-        sb.append("return b");
-
-        Value params = Values.parameters("id", getId(), "relTypes", labels);
-
-        StatementResult result = graphDb.withTx().run(sb.toString(), params);
-        return new VertexIterable(result.list(record -> record.get(0).asNode()), graphDb);
+        return query().direction(direction).labels(labels).vertices();
     }
 
     @Override
     public VertexQuery query() {
-        return new DefaultVertexQuery(this);
+        return new Neo4jVertexQuery(this, graphDb);
+    }
+
+    /**
+     * A multi-hop traversal starting at this vertex, run as a single statement.
+     */
+    public Neo4jTraversal traverse() {
+        return new Neo4jTraversal(graphDb, Collections.singletonList(getId()));
+    }
+
+    /**
+     * Counts the edges with any of the given labels, or all edges, on the server without fetching them.
+     */
+    public long countEdges(Direction direction, String... labels) {
+        Value params = Values.parameters("id", getLongId());
+        return graphDb.forRead().run(Statements.degree(direction, labels == null ? new String[0] : labels), params)
+                .single().get(0).asLong();
     }
 
     @Override
@@ -89,23 +68,43 @@ public class Neo4jVertex extends Neo4jElement<Node> implements Vertex {
     @Override
     public void setProperty(String key, Object value) {
         ElementHelper.validateProperty(this, key, value);
-        if (Neo4jGraph.NODE_GLOBAL_LABEL.equals(key)) {
-            // Apply magic property as label
-            addLabel(value.toString());
+        // Apply magic property as label
+        String label = Neo4jGraph.NODE_GLOBAL_LABEL.equals(key) ? value.toString() : null;
+        if (graphDb.isWriteBehind()) {
+            if (label != null) {
+                addLabel(label);
+            }
+            rawElement = clone(this, key, value);
+            if (rawElement.id() != UNSAVED_ID) {
+                graphDb.getMutationBuffer().setProperty(this, key, value);
+            }
+            graphDb.flushIfFull();
+            return;
         }
-        String statement = String.format("match (n) where id(n) = {id} set n.`%s` = {value} return n", key);
-        Value params = Values.parameters("id", getId(), "value", Values.value(value));
-        StatementResult result = graphDb.withTx().run(statement, params);
-        rawElement = result.single().get(0).asNode();
+        // The label is set by the same statement as the property
+        Value params = Values.parameters("id", getId(), "props", Collections.singletonMap(key, value));
+        String statement = label == null ? Statements.SET_VERTEX_PROPERTIES : Statements.setVertexPropertiesWithLabel(label);
+        graphDb.withTx().run(statement, params).single();
+        if (label != null) {
+            rawElement = cloneWithLabel(this, label);
+        }
+        rawElement = clone(this, key, value);
     }
 
     @Override
     public Object removeProperty(String key) {
         Object propValue = getProperty(key);
-        Value params = Values.parameters("id", getId());
-        String statement = String.format("match (n) where id(n) = {id} remove n.`%s` return n", key);
-        StatementResult result = graphDb.withTx().run(statement, params);
-        rawElement = result.single().get(0).asNode();
+        if (graphDb.isWriteBehind()) {
+            rawElement = clone(this, key);
+            if (rawElement.id() != UNSAVED_ID) {
+                graphDb.getMutationBuffer().setProperty(this, key, null);
+            }
+            graphDb.flushIfFull();
+            return propValue;
+        }
+        Value params = Values.parameters("id", getId(), "props", Collections.singletonMap(key, null));
+        graphDb.withTx().run(Statements.SET_VERTEX_PROPERTIES, params).single();
+        rawElement = clone(this, key);
         return propValue;
     }
 
@@ -114,31 +113,73 @@ public class Neo4jVertex extends Neo4jElement<Node> implements Vertex {
         graphDb.removeVertex(this);
     }
 
+    @Override
+    public Object getProperty(String key) {
+        if (rawElement instanceof VertexProjection.ProjectedNode && !((VertexProjection.ProjectedNode) rawElement).isKnown(key)) {
+            load();
+        }
+        return super.getProperty(key);
+    }
+
+    @Override
+    public Set<String> getPropertyKeys() {
+        if (rawElement instanceof VertexProjection.ProjectedNode) {
+            load();
+        }
+        return super.getPropertyKeys();
+    }
+
     // Non-Blueprints API methods
 
+    /**
+     * The labels of the vertex as a read-only view, shared between calls until the vertex changes.
+     */
     public Set<String> getLabels() {
-        return StreamSupport.stream(rawElement.labels().spliterator(), false).collect(Collectors.toSet());
+        Node node = rawElement;
+        if (labelViewOf != node) {
+            labelView = view(node.labels());
+            labelViewOf = node;
+        }
+        return labelView;
     }
 
     public void addLabel(String label) {
-        String statement = String.format("match (n) where id(n) = {id} set n:`%s` return n", label);
+        if (graphDb.isWriteBehind()) {
+            rawElement = cloneWithLabel(this, label);
+            graphDb.getMutationBuffer().addLabel(this, label);
+            graphDb.flushIfFull();
+            return;
+        }
         Value params = Values.parameters("id", getId());
-        StatementResult result = graphDb.withTx().run(statement, params);
-        rawElement = result.single().get(0).asNode();
+        graphDb.withTx().run(Statements.addLabel(label), params).single();
+        rawElement = cloneWithLabel(this, label);
     }
 
     public void removeLabel(String label) {
-        String statement = String.format("match (n) where id(n) = {id} remove n:`%s`", label);
+        if (graphDb.isWriteBehind()) {
+            rawElement = cloneWithoutLabel(this, label);
+            graphDb.getMutationBuffer().removeLabel(this, label);
+            graphDb.flushIfFull();
+            return;
+        }
         Value params = Values.parameters("id", getId());
-        graphDb.withTx().run(statement, params);
+        graphDb.withTx().run(Statements.removeLabel(label), params).single();
+        rawElement = cloneWithoutLabel(this, label);
+    }
+
+    /**
+     * Replaces a projected node by the whole node. Pending writes are flushed first, so local changes are kept.
+     */
+    private void load() {
+        StatementResult result = graphDb.forRead().run(Statements.GET_VERTEX, Values.parameters("id", getId()));
+        rawElement = result.single().get(0).asNode();
     }
 
     public boolean equals(Object other) {
-        if (!(other instanceof Vertex)) {
-            return false;
+        if (other instanceof Neo4jVertex) {
+            return getLongId() == ((Neo4jVertex) other).getLongId();
         }
-
-        if (getId() == null) {
+        if (!(other instanceof Vertex)) {
             return false;
         }
 
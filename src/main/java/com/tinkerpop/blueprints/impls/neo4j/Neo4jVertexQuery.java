@@ -0,0 +1,140 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.impls.neo4j.iterable.PagedRecordIterable;
+import com.tinkerpop.blueprints.impls.neo4j.iterable.RecordIterable;
+import com.tinkerpop.blueprints.impls.neo4j.iterable.VertexIterable;
+import com.tinkerpop.blueprints.util.DefaultVertexQuery;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.StatementResult;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Vertex query that runs as a single Cypher statement. Has-containers apply to the adjacent edges, as in
+ * {@link DefaultVertexQuery}, and the limit bounds the number of edges matched.
+ */
+public class Neo4jVertexQuery extends DefaultVertexQuery {
+
+    private final Neo4jGraph graphDb;
+
+    public Neo4jVertexQuery(final Neo4jVertex vertex, final Neo4jGraph graphDb) {
+        super(vertex);
+        this.graphDb = graphDb;
+    }
+
+    @Override
+    public Iterable<Edge> edges() {
+        boolean prefetch = graphDb.isPrefetchAdjacent();
+        boolean paged = graphDb.getAdjacencyPageSize() > 0;
+        Map<String, Object> params = new HashMap<>();
+        QueryPredicates predicates = match(params);
+        Statements.Adjacent returns = paged
+                ? (prefetch ? Statements.Adjacent.EDGES_AND_VERTICES_PAGE : Statements.Adjacent.EDGES_PAGE)
+                : (prefetch ? Statements.Adjacent.EDGES_AND_VERTICES : Statements.Adjacent.EDGES);
+        String statement = statement(predicates, returns);
+
+        Function<Record, Edge> mapper = record -> {
+            Edge edge = graphDb.getEdgeWrapper().wrap(record.get(0).asRelationship());
+            if (edge instanceof Neo4jEdge) {
+                ((Neo4jEdge) edge).attachVertex(vertex);
+                if (prefetch) {
+                    ((Neo4jEdge) edge).attachVertex(graphDb.getVertexWrapper().wrap(graphDb.readNode(record, 1)));
+                }
+            }
+            return edge;
+        };
+        Iterable<Edge> edges = paged ? page(statement, params, predicates, mapper)
+                : new RecordIterable<>(graphDb.forRead().run(statement, params), mapper);
+        return predicates.isComplete() ? edges : predicates.filter(edges, limit);
+    }
+
+    @Override
+    public Iterable<Vertex> vertices() {
+        Map<String, Object> params = new HashMap<>();
+        QueryPredicates predicates = match(params);
+        if (!predicates.isComplete()) {
+            // Residual containers test the edges, so walk them and return their far ends
+            return super.vertices();
+        }
+
+        if (graphDb.getAdjacencyPageSize() > 0) {
+            String statement = statement(predicates, Statements.Adjacent.VERTICES_PAGE);
+            return page(statement, params, predicates, record -> graphDb.getVertexWrapper().wrap(graphDb.readNode(record, 0)));
+        }
+        StatementResult result = graphDb.forRead().run(statement(predicates, Statements.Adjacent.VERTICES), params);
+        return new VertexIterable(result, graphDb);
+    }
+
+    /**
+     * Reads a paged statement in the graph's transaction. The limit bounds the pages only when no residual
+     * container filters them afterwards.
+     */
+    private <T> Iterable<T> page(String statement, Map<String, Object> params, QueryPredicates predicates, Function<Record, T> mapper) {
+        long pageLimit = predicates.isComplete() ? limit : Long.MAX_VALUE;
+        return new PagedRecordIterable<>(graphDb::forRead, statement, params, mapper, graphDb.getAdjacencyPageSize(),
+                graphDb.getAdjacencyMaxPageSize(), pageLimit);
+    }
+
+    @Override
+    public long count() {
+        Map<String, Object> params = new HashMap<>();
+        QueryPredicates predicates = match(params);
+        if (!predicates.isComplete()) {
+            return super.count();
+        }
+        if (predicates.isEmpty() && limit == Integer.MAX_VALUE && vertex instanceof Neo4jVertex) {
+            return ((Neo4jVertex) vertex).countEdges(direction, labels);
+        }
+
+        return graphDb.forRead().run(statement(predicates, Statements.Adjacent.COUNT), params).single().get(0).asLong();
+    }
+
+    @Override
+    public Object vertexIds() {
+        Map<String, Object> params = new HashMap<>();
+        QueryPredicates predicates = match(params);
+        if (!predicates.isComplete()) {
+            return super.vertexIds();
+        }
+
+        return graphDb.forRead().run(statement(predicates, Statements.Adjacent.VERTEX_IDS), params).list(record -> record.get(0).asObject());
+    }
+
+    private QueryPredicates match(Map<String, Object> params) {
+        params.put("id", vertex.getId());
+        if (labels.length > 0) {
+            params.put("relTypes", labels);
+        }
+        return new QueryPredicates(containers(), "r", true, params);
+    }
+
+    /**
+     * Statements without compiled predicates come ready-made from the registry; only predicates need text building.
+     */
+    private String statement(QueryPredicates predicates, Statements.Adjacent returns) {
+        boolean typed = labels.length > 0;
+        boolean limited = predicates.limits(limit);
+        String statement;
+        if (predicates.isEmpty()) {
+            statement = Statements.adjacent(direction, typed, returns, limited);
+        } else {
+            StringBuilder sb = new StringBuilder(Statements.adjacentMatch(direction, typed));
+            predicates.appendWhere(sb, " and ");
+            statement = sb.append(returns.suffix(direction, limited)).toString();
+        }
+        return returns.returnsVertices() ? graphDb.project(statement, "b") : statement;
+    }
+
+    private List<QueryPredicates.Container> containers() {
+        return hasContainers.stream()
+                .map(container -> new QueryPredicates.Container(container.key, container.predicate, container.value, container::isLegal))
+                .collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,169 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Compare;
+import com.tinkerpop.blueprints.Contains;
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.Predicate;
+import com.tinkerpop.blueprints.util.StringFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * Translates Blueprints has-containers into a Cypher predicate with the same semantics as
+ * {@code HasContainer.isLegal}. Containers that cannot be expressed in Cypher, such as custom predicates, are left for
+ * the caller to evaluate locally.
+ */
+class QueryPredicates {
+
+    /**
+     * The parts of a has-container, which is not itself visible outside of the Blueprints query classes.
+     */
+    static class Container {
+        final String key;
+        final Predicate predicate;
+        final Object value;
+        final java.util.function.Predicate<Element> isLegal;
+
+        Container(String key, Predicate predicate, Object value, java.util.function.Predicate<Element> isLegal) {
+            this.key = key;
+            this.predicate = predicate;
+            this.value = value;
+            this.isLegal = isLegal;
+        }
+    }
+
+    private final List<String> clauses = new ArrayList<>();
+    private final List<Container> residual = new ArrayList<>();
+    private final Map<String, Object> params;
+
+    /**
+     * @param variable Cypher variable the containers apply to
+     * @param edge     whether the variable is a relationship, in which case the label key tests its type
+     * @param params   statement parameters, receives one entry per compiled value
+     */
+    QueryPredicates(List<Container> containers, String variable, boolean edge, Map<String, Object> params) {
+        this.params = params;
+        for (Container container : containers) {
+            String clause = compile(container, subject(container.key, variable, edge));
+            if (clause == null) {
+                residual.add(container);
+            } else {
+                clauses.add(clause);
+            }
+        }
+    }
+
+    /**
+     * Appends the compiled predicates joined with {@code and}, preceded by the given prefix, if there are any.
+     */
+    void appendWhere(StringBuilder sb, String prefix) {
+        if (!clauses.isEmpty()) {
+            sb.append(prefix).append(String.join(" and ", clauses));
+        }
+    }
+
+    /**
+     * Appends a limit clause, unless there is no limit or residual containers must be evaluated before limiting.
+     */
+    void appendLimit(StringBuilder sb, int limit) {
+        if (limits(limit)) {
+            sb.append(" limit {limit}");
+        }
+    }
+
+    /**
+     * Whether the statement should apply the limit, in which case its {@code {limit}} parameter is set.
+     */
+    boolean limits(int limit) {
+        if (limit != Integer.MAX_VALUE && isComplete()) {
+            params.put("limit", limit);
+            return true;
+        }
+        return false;
+    }
+
+    boolean isComplete() {
+        return residual.isEmpty();
+    }
+
+    /**
+     * Whether no container compiled to a clause, so that nothing needs appending to the statement.
+     */
+    boolean isEmpty() {
+        return clauses.isEmpty();
+    }
+
+    /**
+     * Applies the containers that could not be compiled, then the limit, to the results of the compiled statement.
+     */
+    <T extends Element> Iterable<T> filter(Iterable<T> elements, int limit) {
+        return StreamSupport.stream(elements.spliterator(), false)
+                .filter(element -> residual.stream().allMatch(container -> container.isLegal.test(element)))
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    private static String subject(String key, String variable, boolean edge) {
+        if (StringFactory.ID.equals(key)) {
+            return "id(" + variable + ")";
+        }
+        if (edge && StringFactory.LABEL.equals(key)) {
+            return "type(" + variable + ")";
+        }
+        return variable + ".`" + key + "`";
+    }
+
+    private String compile(Container container, String subject) {
+        if (container.predicate instanceof Compare) {
+            if (container.value == null) {
+                switch ((Compare) container.predicate) {
+                    case EQUAL:
+                        return subject + " is null";
+                    case NOT_EQUAL:
+                        return subject + " is not null";
+                    default:
+                        return null;
+                }
+            }
+            String param = param(container.value);
+            switch ((Compare) container.predicate) {
+                case EQUAL:
+                    return subject + " = " + param;
+                case NOT_EQUAL:
+                    return "(" + subject + " is null or " + subject + " <> " + param + ")";
+                case GREATER_THAN:
+                    return subject + " > " + param;
+                case GREATER_THAN_EQUAL:
+                    return subject + " >= " + param;
+                case LESS_THAN:
+                    return subject + " < " + param;
+                case LESS_THAN_EQUAL:
+                    return subject + " <= " + param;
+            }
+        }
+        if (container.predicate instanceof Contains && container.value instanceof Collection) {
+            Collection<?> values = (Collection<?>) container.value;
+            if (values.contains(null)) {
+                return null;
+            }
+            String param = param(new ArrayList<>(values));
+            if (container.predicate == Contains.IN) {
+                return subject + " in " + param;
+            }
+            return "(" + subject + " is null or not " + subject + " in " + param + ")";
+        }
+        return null;
+    }
+
+    private String param(Object value) {
+        String name = "p" + params.size();
+        params.put(name, value);
+        return "{" + name + "}";
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import org.neo4j.driver.v1.Driver;
+import org.neo4j.driver.v1.Session;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Bounded pool of sessions on a shared driver. At most {@code size} sessions are handed out at a time; callers wait up
+ * to {@code timeoutMillis} for one to be released. Released sessions are kept open for reuse.
+ */
+public class SessionPool {
+
+    private final Driver driver;
+    private final Semaphore permits;
+    private final long timeoutMillis;
+    private final ConcurrentLinkedQueue<Session> idle = new ConcurrentLinkedQueue<>();
+
+    SessionPool(Driver driver, int size, long timeoutMillis) {
+        this.driver = driver;
+        this.permits = new Semaphore(size, true);
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    public Session acquire() {
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new IllegalStateException("No session became available within " + timeoutMillis + "ms");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a session", ex);
+        }
+        try {
+            Session session;
+            while ((session = idle.poll()) != null) {
+                if (session.isOpen()) {
+                    return session;
+                }
+            }
+            return driver.session();
+        } catch (RuntimeException ex) {
+            permits.release();
+            throw ex;
+        }
+    }
+
+    public void release(Session session) {
+        if (session.isOpen()) {
+            idle.offer(session);
+        }
+        permits.release();
+    }
+
+    /**
+     * Runs autocommit work on a session of the pool. The work must read its results before returning.
+     */
+    public <T> T withSession(Function<Session, T> work) {
+        Session session = acquire();
+        try {
+            return work.apply(session);
+        } catch (RuntimeException ex) {
+            // A session that saw a failure is closed rather than pooled, as for failed transactions
+            session.close();
+            throw ex;
+        } finally {
+            release(session);
+        }
+    }
+
+    void close() {
+        Session session;
+        while ((session = idle.poll()) != null) {
+            session.close();
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * Logs statements slower than a threshold. Parameter values may hold user data, so only their types are logged.
+ */
+class SlowStatementLog implements Neo4jStatementListener {
+
+    private static final Logger logger = Logger.getLogger(Neo4jGraph.class.getName());
+
+    private final long thresholdNanos;
+
+    SlowStatementLog(long thresholdMillis) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    }
+
+    @Override
+    public void statementCompleted(String statement, Map<String, Object> parameters, long nanos, long rows, Throwable error) {
+        if (nanos >= thresholdNanos) {
+            logger.warning(String.format("Slow statement (%d ms, %d rows%s): %s %s", TimeUnit.NANOSECONDS.toMillis(nanos),
+                    rows, error == null ? "" : ", failed", statement, redact(parameters)));
+        }
+    }
+
+    static String redact(Map<String, Object> parameters) {
+        StringBuilder sb = new StringBuilder("{");
+        String separator = "";
+        for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+            Object value = parameter.getValue();
+            sb.append(separator).append(parameter.getKey()).append(": ")
+                    .append(value == null ? "null" : value.getClass().getSimpleName());
+            separator = ", ";
+        }
+        return sb.append('}').toString();
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import org.neo4j.driver.v1.Session;
+import org.neo4j.driver.v1.StatementRunner;
+import org.neo4j.driver.v1.Transaction;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The listeners of a graph and its child transactions. Transactions are only instrumented while at least one listener
+ * is registered, so an unobserved graph runs on the driver's transactions directly.
+ */
+class StatementListeners {
+
+    private static final Logger logger = Logger.getLogger(StatementListeners.class.getName());
+
+    private final List<Neo4jStatementListener> listeners = new CopyOnWriteArrayList<>();
+
+    void add(Neo4jStatementListener listener) {
+        listeners.add(listener);
+    }
+
+    void remove(Neo4jStatementListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Instruments a transaction that has just begun. Listeners added later only see later transactions.
+     */
+    Transaction wrap(Transaction tx) {
+        return listeners.isEmpty() ? tx : new InstrumentedTransaction(tx, this);
+    }
+
+    /**
+     * Instruments the autocommit statements run directly on a session whose results the caller reads itself.
+     */
+    StatementRunner wrap(Session session) {
+        return listeners.isEmpty() ? session : wrapAutocommit(session, () -> {
+        }, () -> {
+        });
+    }
+
+    /**
+     * Instruments the autocommit statements run directly on a session. Unlike transactions they are wrapped even
+     * without listeners, as the caller learns through {@code onComplete} when each result has been read.
+     */
+    StatementRunner wrapAutocommit(Session session, Runnable onRun, Runnable onComplete) {
+        return new InstrumentedSession(session, this, onRun, onComplete);
+    }
+
+    // A failing listener must not fail the statement it observes
+    void statementCompleted(String statement, Map<String, Object> parameters, long nanos, long rows, Throwable error) {
+        for (Neo4jStatementListener listener : listeners) {
+            try {
+                listener.statementCompleted(statement, parameters, nanos, rows, error);
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Statement listener failed", ex);
+            }
+        }
+    }
+
+    void transactionCompleted(boolean committed, long nanos, int statements) {
+        for (Neo4jStatementListener listener : listeners) {
+            try {
+                listener.transactionCompleted(committed, nanos, statements);
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Statement listener failed", ex);
+            }
+        }
+    }
+
+}
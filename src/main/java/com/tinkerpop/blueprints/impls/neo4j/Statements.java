@@ -0,0 +1,399 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import com.tinkerpop.blueprints.Direction;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of the Cypher statements sent by the graph. Statements are built once, so repeated calls neither allocate
+ * text nor present the server with new strings to plan. Property keys are passed as parameters wherever Cypher allows;
+ * labels, relationship types and indexed keys cannot be, and their statements are built once per name.
+ */
+final class Statements {
+
+    static final String CREATE_VERTEX = "create (n:`" + Neo4jGraph.NODE_GLOBAL_INDEX + "`) return n";
+    static final String CREATE_VERTEX_WITH_PROPERTIES = "create (n:`" + Neo4jGraph.NODE_GLOBAL_INDEX + "`) set n = {props} return n";
+    // Lookups by id skip the edge index nodes as scans do
+    static final String GET_VERTEX = "match (n) where id(n) = {id} and not n:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "` return n";
+    static final String GET_VERTICES = "unwind {ids} as id match (n) where id(n) = id and not n:`" + Neo4jGraph.EDGE_GLOBAL_INDEX
+            + "` return n";
+    static final String REMOVE_VERTEX = "match (n) where id(n) = {id} detach delete n";
+    static final String REMOVE_VERTICES = "unwind {ids} as id match (n) where id(n) = id detach delete n";
+    // A null value in {props} removes the property; writes only return the id, the change is applied locally
+    static final String SET_VERTEX_PROPERTIES = "match (n) where id(n) = {id} set n += {props} return id(n)";
+    // Scans skip the edge index nodes, which are not vertices
+    static final String SCAN_VERTICES = "match (n) where not n:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "` return n";
+    static final String PAGE_VERTICES = "match (n) where id(n) > {lastId} and not n:`" + Neo4jGraph.EDGE_GLOBAL_INDEX
+            + "` return n order by id(n) limit {pageSize}";
+    static final String RANGE_VERTICES = "unwind range({lo}, {hi}) as id match (n) where id(n) = id and not n:`"
+            + Neo4jGraph.EDGE_GLOBAL_INDEX + "` return n";
+    static final String SNAPSHOT_VERTICES = "match (n) where not n:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "` return id(n), labels(n)";
+    static final String SNAPSHOT_EDGES = "match (a)-[r]->(b) return id(r), id(a), id(b), type(r)";
+    // Bounded removal: edges of the vertices go a batch at a time, self-loops once, before the vertices themselves
+    static final String REMOVE_EDGES_OF_VERTICES = "unwind {ids} as id match (n)-[r]-() where id(n) = id with distinct r limit {limit} delete r";
+    static final String REMOVE_INDEXED_EDGES_OF_VERTICES = "unwind {ids} as id match (n)-[r]-() where id(n) = id with distinct r limit {limit}"
+            + " optional match (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "` {`" + Neo4jGraph.EDGE_INDEX_ID + "`: id(r)}) delete r, x";
+    static final String MAX_VERTEX_ID = "match (n) where not n:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "` return max(id(n))";
+
+    static final String GET_EDGE = "match ()-[r]->() where id(r) = {id} return r";
+    static final String GET_EDGES = "unwind {ids} as id match ()-[r]->() where id(r) = id return r";
+    static final String REMOVE_EDGE = "match ()-[r]->() where id(r) = {id} delete r";
+    static final String SET_EDGE_PROPERTIES = "match ()-[r]->() where id(r) = {id} set r += {props} return id(r)";
+    static final String SCAN_EDGES = "match ()-[r]->() return r";
+    static final String PAGE_EDGES = "match ()-[r]->() where id(r) > {lastId} return r order by id(r) limit {pageSize}";
+    static final String RANGE_EDGES = "unwind range({lo}, {hi}) as id match ()-[r]->() where id(r) = id return r";
+    static final String MAX_EDGE_ID = "match ()-[r]->() return max(id(r))";
+
+    static final String CREATE_VERTEX_BATCH = "unwind {rows} as row create (n:`" + Neo4jGraph.NODE_GLOBAL_INDEX
+            + "`) set n = row.props return row.i, id(n)";
+    static final String SET_VERTEX_PROPERTIES_BATCH = "unwind {rows} as row match (n) where id(n) = row.id set n += row.props";
+    static final String SET_EDGE_PROPERTIES_BATCH = "unwind {rows} as row match ()-[r]->() where id(r) = row.id set r += row.props";
+
+    static final String LIST_INDEXES = "call db.indexes()";
+
+    // Edges with indexed keys are shadowed by an index node holding the edge id and the indexed values. Lookups
+    // always re-check the edge itself, so an index node left behind by other writers never yields a wrong edge.
+    static final String CREATE_EDGE_INDEX_CONSTRAINT = "create constraint on (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX
+            + "`) assert x.`" + Neo4jGraph.EDGE_INDEX_ID + "` is unique";
+    static final String SET_INDEXED_EDGE_PROPERTIES = "match ()-[r]->() where id(r) = {id} set r += {props} merge (x:`"
+            + Neo4jGraph.EDGE_GLOBAL_INDEX + "` {`" + Neo4jGraph.EDGE_INDEX_ID + "`: id(r)}) set x += {props} return id(r)";
+    static final String DELETE_EDGE_INDEX_NODES = "match (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "`) delete x";
+    static final String INDEX_EDGES_BATCH = "unwind {rows} as row merge (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "` {`"
+            + Neo4jGraph.EDGE_INDEX_ID + "`: row.id}) set x += row.props";
+    // Removals only update an existing index node, so an edge without indexed values gets none
+    static final String UNSET_INDEXED_EDGE_PROPERTIES = "match ()-[r]->() where id(r) = {id} set r += {props} with r"
+            + " optional match (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "` {`" + Neo4jGraph.EDGE_INDEX_ID + "`: id(r)}) set x += {props} return id(r)";
+    static final String UNINDEX_EDGES_BATCH = "unwind {rows} as row match (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "` {`"
+            + Neo4jGraph.EDGE_INDEX_ID + "`: row.id}) set x += row.props";
+    static final String REMOVE_INDEXED_EDGE = "match ()-[r]->() where id(r) = {id} optional match (x:`"
+            + Neo4jGraph.EDGE_GLOBAL_INDEX + "` {`" + Neo4jGraph.EDGE_INDEX_ID + "`: id(r)}) delete r, x";
+    static final String REMOVE_INDEXED_VERTEX = "match (n) where id(n) = {id} optional match (n)-[r]-() optional match (x:`"
+            + Neo4jGraph.EDGE_GLOBAL_INDEX + "` {`" + Neo4jGraph.EDGE_INDEX_ID + "`: id(r)}) detach delete n, x";
+    static final String REMOVE_INDEXED_VERTICES = "unwind {ids} as id match (n) where id(n) = id optional match (n)-[r]-() optional match (x:`"
+            + Neo4jGraph.EDGE_GLOBAL_INDEX + "` {`" + Neo4jGraph.EDGE_INDEX_ID + "`: id(r)}) detach delete n, x";
+
+    private static final Template CREATE_EDGE = new Template(
+            "match (a), (b) where id(a) = {ida} and id(b) = {idb} create (a)-[r:`%s`]->(b) return r");
+    private static final Template CREATE_EDGE_BATCH = new Template(
+            "unwind {rows} as row match (a), (b) where id(a) = row.a and id(b) = row.b create (a)-[r:`%s`]->(b) set r = row.props return row.i, id(r)");
+    private static final Template CREATE_EDGE_BULK = new Template(
+            "unwind {rows} as row match (a), (b) where id(a) = row.a and id(b) = row.b create (a)-[r:`%s`]->(b) set r = row.props");
+    private static final Template CREATE_INDEXED_EDGE_BULK = new Template(
+            "unwind {rows} as row match (a), (b) where id(a) = row.a and id(b) = row.b create (a)-[r:`%s`]->(b) set r = row.props"
+                    + " merge (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "` {`" + Neo4jGraph.EDGE_INDEX_ID + "`: id(r)}) set x += row.indexed");
+    private static final Template ADD_LABEL = new Template("match (n) where id(n) = {id} set n:`%s` return id(n)");
+    private static final Template ADD_LABEL_BATCH = new Template("unwind {ids} as id match (n) where id(n) = id set n:`%s`");
+    private static final Template REMOVE_LABEL = new Template("match (n) where id(n) = {id} remove n:`%s` return id(n)");
+    private static final Template REMOVE_LABEL_BATCH = new Template("unwind {ids} as id match (n) where id(n) = id remove n:`%s`");
+    private static final Template SET_VERTEX_PROPERTIES_WITH_LABEL = new Template(
+            "match (n) where id(n) = {id} set n += {props}, n:`%s` return id(n)");
+    // Label scans read the label scan store, and a key compared under a label can use an index on that label
+    private static final Template GET_VERTICES_BY_LABEL = new Template("match (n:`%s`) return n");
+    private static final Template PAGE_VERTICES_BY_LABEL = new Template(
+            "match (n:`%s`) where id(n) > {lastId} return n order by id(n) limit {pageSize}");
+    private static final Template GET_VERTICES_BY_LABEL_AND_KEY = new Template("match (n:`%s`) where n.`%s` = {value} return n");
+    // Keys stay in the text so that the planner can use the index on them
+    private static final Template GET_VERTICES_BY_KEY = new Template(
+            "match (n:`" + Neo4jGraph.NODE_GLOBAL_INDEX + "`) where n.`%s` = {value} return n");
+    private static final Template GET_EDGES_BY_KEY = new Template("match ()-[r]->() where r.`%s` = {value} return r");
+    private static final Template GET_EDGES_BY_INDEXED_KEY = new Template("match (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX
+            + "`) where x.`%1$s` = {value} match ()-[r]->() where id(r) = x.`" + Neo4jGraph.EDGE_INDEX_ID + "` and r.`%1$s` = {value} return r");
+    private static final Template CREATE_INDEX = new Template("create index on :`" + Neo4jGraph.NODE_GLOBAL_INDEX + "`(`%s`)");
+    private static final Template DROP_INDEX = new Template("drop index on :`" + Neo4jGraph.NODE_GLOBAL_INDEX + "`(`%s`)");
+    private static final Template CREATE_EDGE_INDEX = new Template("create index on :`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "`(`%s`)");
+    private static final Template DROP_EDGE_INDEX = new Template("drop index on :`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "`(`%s`)");
+    private static final Template INDEX_EDGES = new Template("match ()-[r]->() where exists(r.`%1$s`) merge (x:`"
+            + Neo4jGraph.EDGE_GLOBAL_INDEX + "` {`" + Neo4jGraph.EDGE_INDEX_ID + "`: id(r)}) set x.`%1$s` = r.`%1$s`");
+    private static final Template UNINDEX_EDGES = new Template("match (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "`) where exists(x.`%1$s`) remove x.`%1$s`");
+
+    // Degrees are read from the node's relationship counts rather than by expanding its edges; the types are
+    // templated since patterns cannot take them as parameters
+    private static final Template[] DEGREE = {
+            new Template("match (n) where id(n) = {id} return size((n)<-[%s]-())"),
+            new Template("match (n) where id(n) = {id} return size((n)-[%s]->())"),
+            new Template("match (n) where id(n) = {id} return size((n)-[%s]-())")};
+    private static final Template[] DEGREES = {
+            new Template("unwind {ids} as id match (n) where id(n) = id return id, size((n)<-[%s]-())"),
+            new Template("unwind {ids} as id match (n) where id(n) = id return id, size((n)-[%s]->())"),
+            new Template("unwind {ids} as id match (n) where id(n) = id return id, size((n)-[%s]-())")};
+
+    private static final String PAGE_FILTER = " and id(r) > {lastId}";
+
+    /**
+     * What an adjacency statement returns, each with its unlimited and limited form.
+     */
+    enum Adjacent {
+        EDGES(" return r", " return r limit {limit}"),
+        EDGES_AND_VERTICES(" return r, b", " return r, b limit {limit}"),
+        VERTICES(" return b", " return b limit {limit}"),
+        VERTEX_IDS(" return id(b)", " return id(b) limit {limit}"),
+        COUNT(" return count(r)", " with r limit {limit} return count(r)"),
+        // Pages ordered by edge id, carrying the id in the last column; the page size already applies any limit
+        EDGES_PAGE(" return r, id(r) order by id(r) limit {pageSize}"),
+        EDGES_AND_VERTICES_PAGE(" return r, b, id(r) order by id(r) limit {pageSize}"),
+        VERTICES_PAGE(" return b, id(r) order by id(r) limit {pageSize}");
+
+        // Whether an undirected pattern matches a self-loop once or from each end is up to the server's expansion;
+        // identical rows are folded so that both directions return it once and edge id pages never split a pair
+        private static final String DISTINCT = " with distinct r, b";
+
+        private final String filter;
+        private final String unlimited;
+        private final String limited;
+
+        Adjacent(String unlimited, String limited) {
+            this.filter = "";
+            this.unlimited = unlimited;
+            this.limited = limited;
+        }
+
+        Adjacent(String paged) {
+            this.filter = PAGE_FILTER;
+            this.unlimited = paged;
+            this.limited = paged;
+        }
+
+        boolean returnsVertices() {
+            return this == VERTICES || this == EDGES_AND_VERTICES || this == VERTICES_PAGE || this == EDGES_AND_VERTICES_PAGE;
+        }
+
+        String suffix(Direction direction, boolean limit) {
+            return filter + (direction == Direction.BOTH ? DISTINCT : "") + (limit ? limited : unlimited);
+        }
+    }
+
+    // Indexed by direction, whether types are filtered, then for complete statements return kind and limit
+    private static final String[][] ADJACENT_MATCH = new String[Direction.values().length][2];
+    private static final String[][][][] ADJACENT = new String[Direction.values().length][2][Adjacent.values().length][2];
+
+    static {
+        for (Direction direction : Direction.values()) {
+            for (int typed = 0; typed < 2; typed++) {
+                String match = "match (n)" + (direction == Direction.IN ? "<" : "") + "-[r]-"
+                        + (direction == Direction.OUT ? ">" : "") + "(b) where id(n) = {id}"
+                        + (typed == 1 ? " and type(r) in {relTypes}" : "");
+                ADJACENT_MATCH[direction.ordinal()][typed] = match;
+                for (Adjacent returns : Adjacent.values()) {
+                    ADJACENT[direction.ordinal()][typed][returns.ordinal()][0] = match + returns.suffix(direction, false);
+                    ADJACENT[direction.ordinal()][typed][returns.ordinal()][1] = match + returns.suffix(direction, true);
+                }
+            }
+        }
+    }
+
+    private Statements() {
+    }
+
+    static String createEdge(String label) {
+        return CREATE_EDGE.get(label);
+    }
+
+    static String createEdgeBatch(String label) {
+        return CREATE_EDGE_BATCH.get(label);
+    }
+
+    static String createEdgeBulk(String label) {
+        return CREATE_EDGE_BULK.get(label);
+    }
+
+    static String createIndexedEdgeBulk(String label) {
+        return CREATE_INDEXED_EDGE_BULK.get(label);
+    }
+
+    static String addLabel(String label) {
+        return ADD_LABEL.get(label);
+    }
+
+    static String setVertexPropertiesWithLabel(String label) {
+        return SET_VERTEX_PROPERTIES_WITH_LABEL.get(label);
+    }
+
+    static String getVerticesByLabel(String label) {
+        return GET_VERTICES_BY_LABEL.get(label);
+    }
+
+    static String pageVerticesByLabel(String label) {
+        return PAGE_VERTICES_BY_LABEL.get(label);
+    }
+
+    static String getVerticesByLabelAndKey(String label, String key) {
+        return GET_VERTICES_BY_LABEL_AND_KEY.get(label, key);
+    }
+
+    static String addLabelBatch(String label) {
+        return ADD_LABEL_BATCH.get(label);
+    }
+
+    static String removeLabelBatch(String label) {
+        return REMOVE_LABEL_BATCH.get(label);
+    }
+
+    static String removeLabel(String label) {
+        return REMOVE_LABEL.get(label);
+    }
+
+    static String getVerticesByKey(String key) {
+        return GET_VERTICES_BY_KEY.get(key);
+    }
+
+    static String getEdgesByKey(String key) {
+        return GET_EDGES_BY_KEY.get(key);
+    }
+
+    static String getEdgesByIndexedKey(String key) {
+        return GET_EDGES_BY_INDEXED_KEY.get(key);
+    }
+
+    static String createIndex(String key) {
+        return CREATE_INDEX.get(key);
+    }
+
+    static String dropIndex(String key) {
+        return DROP_INDEX.get(key);
+    }
+
+    static String createEdgeIndex(String key) {
+        return CREATE_EDGE_INDEX.get(key);
+    }
+
+    static String dropEdgeIndex(String key) {
+        return DROP_EDGE_INDEX.get(key);
+    }
+
+    static String indexEdges(String key) {
+        return INDEX_EDGES.get(key);
+    }
+
+    static String unindexEdges(String key) {
+        return UNINDEX_EDGES.get(key);
+    }
+
+    /**
+     * Counts the edges of vertex {@code {id}} with any of the given types, or of any type if none is given.
+     */
+    static String degree(Direction direction, String... types) {
+        return DEGREE[degreeIndex(direction)].get(typeList(types));
+    }
+
+    /**
+     * Counts the edges of each vertex in {@code {ids}}, returning the id and the count.
+     */
+    static String degrees(Direction direction, String... types) {
+        return DEGREES[degreeIndex(direction)].get(typeList(types));
+    }
+
+    /**
+     * Matches the vertices of each row in {@code {rows}} on all the given keys, comparing with the values in
+     * {@code row.v} and returning the row index {@code row.i} and the vertex.
+     */
+    static String lookupVertices(Collection<String> keys, boolean indexed) {
+        StringBuilder sb = new StringBuilder("unwind {rows} as row match (n");
+        if (indexed) {
+            sb.append(":`").append(Neo4jGraph.NODE_GLOBAL_INDEX).append("`) where ");
+        } else {
+            sb.append(") where not n:`").append(Neo4jGraph.EDGE_GLOBAL_INDEX).append("`");
+        }
+        String separator = indexed ? "" : " and ";
+        for (String key : keys) {
+            sb.append(separator).append("n.`").append(key).append("` = row.v.`").append(key).append('`');
+            separator = " and ";
+        }
+        return sb.append(" return row.i, n").toString();
+    }
+
+    /**
+     * Selects the ids of up to {@code {limit}} vertices with the given label, or any vertex if it is null, and, if a
+     * key is given, with the value {@code {value}} for it.
+     */
+    static String selectVertexIds(String label, String key, boolean indexed) {
+        StringBuilder sb = new StringBuilder("match (n");
+        if (label != null) {
+            sb.append(":`").append(label).append('`');
+        }
+        if (indexed) {
+            sb.append(":`").append(Neo4jGraph.NODE_GLOBAL_INDEX).append('`');
+        }
+        sb.append(')');
+        String separator = " where ";
+        if (label == null && !indexed) {
+            sb.append(" where not n:`").append(Neo4jGraph.EDGE_GLOBAL_INDEX).append('`');
+            separator = " and ";
+        }
+        if (key != null) {
+            sb.append(separator).append("n.`").append(key).append("` = {value}");
+        }
+        return sb.append(" return id(n) limit {limit}").toString();
+    }
+
+    private static int degreeIndex(Direction direction) {
+        return direction == Direction.IN ? 0 : direction == Direction.OUT ? 1 : 2;
+    }
+
+    private static String typeList(String[] types) {
+        if (types.length == 0) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(":`").append(types[0]).append('`');
+        for (int i = 1; i < types.length; i++) {
+            sb.append("|`").append(types[i]).append('`');
+        }
+        return sb.toString();
+    }
+
+    /**
+     * The match and where clause of the edges adjacent to vertex {@code {id}}, optionally restricted to the types in
+     * {@code {relTypes}}, binding the edge to {@code r} and the far end to {@code b}.
+     */
+    static String adjacentMatch(Direction direction, boolean typed) {
+        return ADJACENT_MATCH[direction.ordinal()][typed ? 1 : 0];
+    }
+
+    /**
+     * A complete adjacency statement without further predicates.
+     */
+    static String adjacent(Direction direction, boolean typed, Adjacent returns, boolean limit) {
+        return ADJACENT[direction.ordinal()][typed ? 1 : 0][returns.ordinal()][limit ? 1 : 0];
+    }
+
+    /**
+     * Statements for one format, built on first use of each name. Past {@link #MAX_SIZE} names statements are built
+     * on every call rather than cached, so arbitrary keys cannot grow the registry without bound.
+     */
+    private static final class Template {
+
+        private static final int MAX_SIZE = 10000;
+
+        private final String format;
+        private final ConcurrentHashMap<String, String> statements = new ConcurrentHashMap<>();
+
+        Template(String format) {
+            this.format = format;
+        }
+
+        String get(String name) {
+            String statement = statements.get(name);
+            if (statement == null) {
+                statement = String.format(format, name);
+                if (statements.size() < MAX_SIZE) {
+                    statements.putIfAbsent(name, statement);
+                }
+            }
+            return statement;
+        }
+
+        String get(String first, String second) {
+            // Names cannot contain a NUL character, so the pair maps to a single key
+            String pair = first + '\0' + second;
+            String statement = statements.get(pair);
+            if (statement == null) {
+                statement = String.format(format, first, second);
+                if (statements.size() < MAX_SIZE) {
+                    statements.putIfAbsent(pair, statement);
+                }
+            }
+            return statement;
+        }
+    }
+
+}
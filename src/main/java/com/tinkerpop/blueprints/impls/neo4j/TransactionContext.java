@@ -0,0 +1,135 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import org.neo4j.driver.v1.Session;
+import org.neo4j.driver.v1.StatementRunner;
+import org.neo4j.driver.v1.Transaction;
+
+import java.util.Set;
+
+/**
+ * State of one transaction: the session it runs on, its write-behind buffer and the element caches, which hold
+ * elements carrying that transaction's uncommitted changes. A context is only ever used by one thread at a time.
+ */
+class TransactionContext {
+
+    private final SessionPool sessions;
+    // The contexts of the graph holding a session, closed on shutdown whichever thread they belong to
+    private final Set<TransactionContext> open;
+    private final StatementListeners listeners;
+    private final boolean pinned;
+    private Session session;
+    private Transaction tx;
+    // Autocommit results on the session not yet read, consumed or closed, and the statements they belong to
+    private int openReads;
+    private int readGeneration;
+
+    final MutationBuffer mutations;
+    final ElementCache<Neo4jVertex> vertexCache;
+    final ElementCache<Neo4jEdge> edgeCache;
+
+    /**
+     * @param pinned whether the session is kept until {@link #close()} rather than returned to the pool whenever a
+     *               transaction completes
+     */
+    TransactionContext(SessionPool sessions, Set<TransactionContext> open, StatementListeners listeners, boolean pinned,
+                       MutationBuffer mutations, int cacheSize) {
+        this.sessions = sessions;
+        this.open = open;
+        this.listeners = listeners;
+        this.pinned = pinned;
+        this.mutations = mutations;
+        this.vertexCache = new ElementCache<>(cacheSize);
+        this.edgeCache = new ElementCache<>(cacheSize);
+    }
+
+    Session session() {
+        if (session == null) {
+            session = sessions.acquire();
+            open.add(this);
+        }
+        return session;
+    }
+
+    Transaction transaction() {
+        if (tx == null) {
+            settleReads();
+            tx = listeners.wrap(session().beginTransaction());
+        }
+        return tx;
+    }
+
+    boolean inTransaction() {
+        return tx != null;
+    }
+
+    /**
+     * Runs statements directly on the session, each in its own autocommit transaction. Only valid while no
+     * transaction is open. Reads leave no transaction to complete, so an unpinned session goes back to the pool once
+     * the last of their results has been read, consumed or closed, or has been settled by a later statement.
+     */
+    StatementRunner autocommit() {
+        settleReads();
+        int generation = readGeneration;
+        return listeners.wrapAutocommit(session(), () -> openReads++, () -> readCompleted(generation));
+    }
+
+    /**
+     * Running anything else on the session makes the driver buffer the results still open on it, so those no longer
+     * hold the session, even if they are abandoned without being read or closed.
+     */
+    private void settleReads() {
+        if (openReads > 0) {
+            openReads = 0;
+            readGeneration++;
+        }
+    }
+
+    private void readCompleted(int generation) {
+        if (generation == readGeneration && --openReads == 0 && tx == null) {
+            release();
+        }
+    }
+
+    void complete(boolean success) {
+        if (tx != null) {
+            if (success) {
+                tx.success();
+            } else {
+                tx.failure();
+            }
+            tx.close();
+            tx = null;
+        }
+        // A session still streaming an autocommit result is kept until that result is done
+        if (openReads == 0) {
+            release();
+        }
+    }
+
+    private void release() {
+        if (!pinned && session != null) {
+            open.remove(this);
+            sessions.release(session);
+            session = null;
+        }
+    }
+
+    void close() {
+        close(true);
+    }
+
+    /**
+     * Completes the open transaction, if any, and closes the session.
+     */
+    void close(boolean success) {
+        complete(success);
+        openReads = 0;
+        if (session != null) {
+            open.remove(this);
+            session.close();
+            sessions.release(session);
+            session = null;
+        }
+    }
+
+}
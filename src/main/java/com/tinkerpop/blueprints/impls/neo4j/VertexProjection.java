@@ -0,0 +1,107 @@
+package com.tinkerpop.blueprints.impls.neo4j;
+
+import org.neo4j.driver.internal.InternalNode;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Value;
+import org.neo4j.driver.v1.types.Node;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads vertices as their id, labels and a fixed set of keys rather than as whole nodes. Statements are rewritten to
+ * return the three columns in place of the node, and the columns are read back into a {@link ProjectedNode}; the
+ * vertex loads its remaining properties on first access to one of them.
+ */
+class VertexProjection {
+
+    /**
+     * Node holding only some of its properties. Keys outside {@link #getProjectedKeys()} are unknown rather than absent.
+     */
+    static class ProjectedNode extends InternalNode {
+        private final Set<String> projectedKeys;
+
+        ProjectedNode(long id, Collection<String> labels, Map<String, Value> properties, Set<String> projectedKeys) {
+            super(id, labels, properties);
+            this.projectedKeys = projectedKeys;
+        }
+
+        Set<String> getProjectedKeys() {
+            return projectedKeys;
+        }
+
+        boolean isKnown(String key) {
+            return projectedKeys.contains(key) || containsKey(key);
+        }
+    }
+
+    private static final int MAX_STATEMENTS = 10000;
+
+    private final Set<String> keys;
+    private final ConcurrentHashMap<String, String> statements = new ConcurrentHashMap<>();
+
+    VertexProjection(Collection<String> keys) {
+        this.keys = Collections.unmodifiableSet(new LinkedHashSet<>(keys));
+    }
+
+    Set<String> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Replaces the node returned as {@code variable} in the statement's final return clause by its projection.
+     */
+    String apply(String statement, String variable) {
+        String projected = statements.get(statement);
+        if (projected == null) {
+            projected = rewrite(statement, variable);
+            if (statements.size() < MAX_STATEMENTS) {
+                statements.putIfAbsent(statement, projected);
+            }
+        }
+        return projected;
+    }
+
+    /**
+     * Reads the projection written by {@link #apply} starting at the given column.
+     */
+    Node read(Record record, int index) {
+        Map<String, Value> properties = new HashMap<>();
+        record.get(index + 2).asMap(value -> value).forEach((key, value) -> {
+            if (!value.isNull()) {
+                properties.put(key, value);
+            }
+        });
+        return new ProjectedNode(record.get(index).asLong(), record.get(index + 1).asList(Value::asString), properties, keys);
+    }
+
+    private String rewrite(String statement, String variable) {
+        int clause = statement.lastIndexOf("return ");
+        int start = clause < 0 ? -1 : clause + "return ".length();
+        if (start >= 0 && statement.startsWith("distinct ", start)) {
+            start += "distinct ".length();
+        }
+        if (start >= 0 && !statement.startsWith(variable, start)) {
+            int item = statement.indexOf(", " + variable, start);
+            start = item < 0 ? -1 : item + 2;
+        }
+        int end = start + variable.length();
+        if (start < 0 || (end < statement.length() && statement.charAt(end) != ' ' && statement.charAt(end) != ',')) {
+            throw new IllegalArgumentException("Statement does not return " + variable + ": " + statement);
+        }
+        StringBuilder sb = new StringBuilder(statement.substring(0, start)).append("id(").append(variable)
+                .append("), labels(").append(variable).append("), {");
+        String separator = "";
+        for (String key : keys) {
+            sb.append(separator).append('`').append(key).append("`: ").append(variable).append(".`").append(key).append('`');
+            separator = ", ";
+        }
+        return sb.append('}').append(statement.substring(end)).toString();
+    }
+
+}
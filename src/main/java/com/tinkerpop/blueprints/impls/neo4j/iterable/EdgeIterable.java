@@ -2,6 +2,7 @@ package com.tinkerpop.blueprints.impls.neo4j.iterable;
 
 import com.tinkerpop.blueprints.Edge;
 import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.types.Relationship;
 
 public class EdgeIterable extends ElementIterable<Edge, Relationship> {
@@ -10,4 +11,15 @@ public class EdgeIterable extends ElementIterable<Edge, Relationship> {
         super(relationships, graph, graph.getEdgeWrapper());
     }
 
+    /**
+     * Streams the entities held in the first column of the result.
+     */
+    public EdgeIterable(StatementResult result, Neo4jGraph graph) {
+        super(result, record -> record.get(0).asRelationship(), graph, graph.getEdgeWrapper());
+    }
+
+    public EdgeIterable(PagedCursor<Relationship> cursor, Neo4jGraph graph) {
+        super(() -> cursor, cursor::close, graph, graph.getEdgeWrapper());
+    }
+
 }
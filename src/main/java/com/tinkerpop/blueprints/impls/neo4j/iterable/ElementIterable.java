@@ -4,25 +4,43 @@ import com.tinkerpop.blueprints.CloseableIterable;
 import com.tinkerpop.blueprints.Element;
 import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
 import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph.ElementWrapper;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.types.Entity;
 
-import java.util.Iterator;;
+import java.util.Iterator;
+import java.util.function.Function;
 
+/**
+ * Wraps raw entities as Blueprints elements as they are consumed. When built over a {@link StatementResult} the
+ * iterable is single-pass: every iterator shares the live cursor, records are pulled one at a time and
+ * {@link #close()} discards whatever the caller did not read.
+ */
 public abstract class ElementIterable<T extends Element, S extends Entity> implements CloseableIterable<T> {
 
     protected final Iterable<S> elements;
     protected final Neo4jGraph graphDb;
     protected final ElementWrapper<? extends T, S> elementWrapper;
+    protected final Runnable onClose;
 
     public ElementIterable(Iterable<S> elements, Neo4jGraph graphDb, ElementWrapper<? extends T, S> elementWrapper) {
+        this(elements, () -> {}, graphDb, elementWrapper);
+    }
+
+    public ElementIterable(StatementResult result, Function<Record, S> extractor, Neo4jGraph graphDb, ElementWrapper<? extends T, S> elementWrapper) {
+        this(cursor(result, extractor), result::consume, graphDb, elementWrapper);
+    }
+
+    protected ElementIterable(Iterable<S> elements, Runnable onClose, Neo4jGraph graphDb, ElementWrapper<? extends T, S> elementWrapper) {
         this.elements = elements;
+        this.onClose = onClose;
         this.graphDb = graphDb;
         this.elementWrapper = elementWrapper;
     }
 
     @Override
     public void close() {
-        return;
+        onClose.run();
     }
 
     @Override
@@ -46,4 +64,19 @@ public abstract class ElementIterable<T extends Element, S extends Entity> imple
         };
     }
 
+    private static <S> Iterable<S> cursor(StatementResult result, Function<Record, S> extractor) {
+        final Iterator<S> cursor = new Iterator<S>() {
+            @Override
+            public boolean hasNext() {
+                return result.hasNext();
+            }
+
+            @Override
+            public S next() {
+                return extractor.apply(result.next());
+            }
+        };
+        return () -> cursor;
+    }
+
 }
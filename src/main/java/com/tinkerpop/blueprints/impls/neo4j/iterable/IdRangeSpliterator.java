@@ -0,0 +1,86 @@
+package com.tinkerpop.blueprints.impls.neo4j.iterable;
+
+import com.tinkerpop.blueprints.Element;
+import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph.ElementWrapper;
+import com.tinkerpop.blueprints.impls.neo4j.SessionPool;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Values;
+import org.neo4j.driver.v1.types.Entity;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Splits an id range into halves so that a parallel stream can scan it with work stealing. The range is read in
+ * chunks of {@code chunkSize} ids, each on a session of the graph's pool. The statement must accept inclusive {@code {lo}} and
+ * {@code {hi}} id bounds.
+ */
+public class IdRangeSpliterator<T extends Element, S extends Entity> implements Spliterator<T> {
+
+    private final SessionPool sessions;
+    private final String statement;
+    private final Function<Record, S> extractor;
+    private final ElementWrapper<? extends T, S> elementWrapper;
+    private final long chunkSize;
+
+    private long cursor;
+    private long end;
+    private Iterator<S> chunk = Collections.emptyIterator();
+
+    /**
+     * @param start first id of the range
+     * @param end   id one past the end of the range
+     */
+    public IdRangeSpliterator(SessionPool sessions, String statement, Function<Record, S> extractor, ElementWrapper<? extends T, S> elementWrapper,
+                              long start, long end, long chunkSize) {
+        this.sessions = sessions;
+        this.statement = statement;
+        this.extractor = extractor;
+        this.elementWrapper = elementWrapper;
+        this.cursor = start;
+        this.end = end;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> action) {
+        while (!chunk.hasNext()) {
+            if (cursor >= end) {
+                return false;
+            }
+            long hi = Math.min(cursor + chunkSize, end);
+            long lo = cursor;
+            chunk = sessions.withSession(session ->
+                    session.run(statement, Values.parameters("lo", lo, "hi", hi - 1)).list(extractor::apply)).iterator();
+            cursor = hi;
+        }
+        action.accept(elementWrapper.wrap(chunk.next()));
+        return true;
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        long remaining = end - cursor;
+        if (remaining <= chunkSize) {
+            return null;
+        }
+        long mid = cursor + remaining / 2;
+        Spliterator<T> suffix = new IdRangeSpliterator<>(sessions, statement, extractor, elementWrapper, mid, end, chunkSize);
+        end = mid;
+        return suffix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return end - cursor;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED | DISTINCT | NONNULL;
+    }
+
+}
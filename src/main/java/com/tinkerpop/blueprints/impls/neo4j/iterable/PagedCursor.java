@@ -0,0 +1,89 @@
+package com.tinkerpop.blueprints.impls.neo4j.iterable;
+
+import com.tinkerpop.blueprints.impls.neo4j.SessionPool;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.Values;
+import org.neo4j.driver.v1.types.Entity;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Walks a keyset-paginated statement one page at a time. Each page is fetched in its own short auto-commit
+ * transaction and the following page is fetched in the background while the current one is consumed. The statement
+ * must accept {@code {lastId}} and {@code {pageSize}} parameters and return entities ordered by id.
+ * <p>
+ * Pages run on sessions of the graph's pool, apart from its transactions, so the cursor only observes committed data.
+ */
+public class PagedCursor<S extends Entity> implements Iterator<S> {
+
+    private final SessionPool sessions;
+    private final String statement;
+    private final Function<Record, S> extractor;
+    private final int pageSize;
+    private final Executor executor;
+
+    private Iterator<S> page = Collections.emptyIterator();
+    private CompletableFuture<List<S>> nextPage;
+
+    public PagedCursor(SessionPool sessions, String statement, Function<Record, S> extractor, int pageSize, Executor executor) {
+        this.sessions = sessions;
+        this.statement = statement;
+        this.extractor = extractor;
+        this.pageSize = pageSize;
+        this.executor = executor;
+        this.nextPage = fetch(-1L);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!page.hasNext()) {
+            if (nextPage == null) {
+                return false;
+            }
+            List<S> fetched = await(nextPage);
+            nextPage = fetched.size() < pageSize ? null : fetch(fetched.get(fetched.size() - 1).id());
+            page = fetched.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public S next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return page.next();
+    }
+
+    /**
+     * Stops paging; a page already in flight is left to complete and is discarded.
+     */
+    public void close() {
+        nextPage = null;
+        page = Collections.emptyIterator();
+    }
+
+    private CompletableFuture<List<S>> fetch(long lastId) {
+        return CompletableFuture.supplyAsync(() -> sessions.withSession(session ->
+                session.run(statement, Values.parameters("lastId", lastId, "pageSize", pageSize)).list(extractor::apply)), executor);
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+}
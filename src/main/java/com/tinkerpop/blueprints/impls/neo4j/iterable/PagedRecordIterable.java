@@ -0,0 +1,102 @@
+package com.tinkerpop.blueprints.impls.neo4j.iterable;
+
+import com.tinkerpop.blueprints.CloseableIterable;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.StatementRunner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Maps the records of a keyset-paginated statement that runs page by page on the runner supplied for each page,
+ * normally the caller's transaction, so that uncommitted changes are visible and only one page is held at a time.
+ * The statement must accept {@code {lastId}} and {@code {pageSize}} parameters and return at most that many rows
+ * ordered by the id held in their last column. Like {@link RecordIterable} it is single-pass; pages are only fetched
+ * as the caller reads on, up to {@code limit} rows.
+ * <p>
+ * The server finds each page by matching and sorting all rows past the cursor, so with a fixed page size a full walk
+ * of n rows would cost n / pageSize such passes. Pages therefore double in size after the first, up to
+ * {@code maxPageSize}: a full walk runs a logarithmic number of statements until pages reach that size, while a reader
+ * that stops early has been sent at most as many rows again as it had read.
+ */
+public class PagedRecordIterable<T> implements CloseableIterable<T> {
+
+    private final Supplier<? extends StatementRunner> runner;
+    private final String statement;
+    private final Map<String, Object> params;
+    private final Function<Record, ? extends T> mapper;
+    private final int maxPageSize;
+    private int pageSize;
+
+    private long remaining;
+    private long lastId = -1;
+    private Iterator<Record> page = Collections.emptyIterator();
+    private boolean exhausted;
+
+    private final Iterator<T> cursor = new Iterator<T>() {
+        @Override
+        public boolean hasNext() {
+            while (!page.hasNext()) {
+                if (exhausted) {
+                    return false;
+                }
+                fetch();
+            }
+            return true;
+        }
+
+        @Override
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return mapper.apply(page.next());
+        }
+    };
+
+    public PagedRecordIterable(Supplier<? extends StatementRunner> runner, String statement, Map<String, Object> params,
+                               Function<Record, ? extends T> mapper, int pageSize, int maxPageSize, long limit) {
+        this.runner = runner;
+        this.statement = statement;
+        this.params = params;
+        this.mapper = mapper;
+        this.pageSize = pageSize;
+        this.maxPageSize = Math.max(pageSize, maxPageSize);
+        this.remaining = limit;
+        this.exhausted = limit <= 0;
+    }
+
+    @Override
+    public void close() {
+        exhausted = true;
+        page = Collections.emptyIterator();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return cursor;
+    }
+
+    private void fetch() {
+        int size = (int) Math.min(pageSize, remaining);
+        pageSize = (int) Math.min(2L * pageSize, maxPageSize);
+        Map<String, Object> pageParams = new HashMap<>(params);
+        pageParams.put("lastId", lastId);
+        pageParams.put("pageSize", size);
+        List<Record> records = runner.get().run(statement, pageParams).list();
+        remaining -= records.size();
+        exhausted = records.size() < size || remaining == 0;
+        if (!records.isEmpty()) {
+            Record last = records.get(records.size() - 1);
+            lastId = last.get(last.size() - 1).asLong();
+        }
+        page = records.iterator();
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.tinkerpop.blueprints.impls.neo4j.iterable;
+
+import com.tinkerpop.blueprints.CloseableIterable;
+import org.neo4j.driver.v1.Record;
+import org.neo4j.driver.v1.StatementResult;
+
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * Maps whole records as they are consumed, for statements that return more than a single entity per row. Like the
+ * streaming {@link ElementIterable} it is single-pass and {@link #close()} discards the unread remainder.
+ */
+public class RecordIterable<T> implements CloseableIterable<T> {
+
+    protected final StatementResult result;
+    protected final Function<Record, ? extends T> mapper;
+
+    public RecordIterable(StatementResult result, Function<Record, ? extends T> mapper) {
+        this.result = result;
+        this.mapper = mapper;
+    }
+
+    @Override
+    public void close() {
+        result.consume();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<T>() {
+            @Override
+            public boolean hasNext() {
+                return result.hasNext();
+            }
+
+            @Override
+            public T next() {
+                return mapper.apply(result.next());
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+}
@@ -2,6 +2,7 @@ package com.tinkerpop.blueprints.impls.neo4j.iterable;
 
 import com.tinkerpop.blueprints.Vertex;
 import com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph;
+import org.neo4j.driver.v1.StatementResult;
 import org.neo4j.driver.v1.types.Node;
 
 public class VertexIterable extends ElementIterable<Vertex, Node> {
@@ -10,4 +11,15 @@ public class VertexIterable extends ElementIterable<Vertex, Node> {
         super(nodes, graph, graph.getVertexWrapper());
     }
 
+    /**
+     * Streams the nodes held in the first column of the result, or their projection when the graph projects vertices.
+     */
+    public VertexIterable(StatementResult result, Neo4jGraph graph) {
+        super(result, record -> graph.readNode(record, 0), graph, graph.getVertexWrapper());
+    }
+
+    public VertexIterable(PagedCursor<Node> cursor, Neo4jGraph graph) {
+        super(() -> cursor, cursor::close, graph, graph.getVertexWrapper());
+    }
+
 }
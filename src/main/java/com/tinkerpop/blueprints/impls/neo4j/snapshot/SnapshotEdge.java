@@ -0,0 +1,94 @@
+package com.tinkerpop.blueprints.impls.neo4j.snapshot;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.ExceptionFactory;
+import com.tinkerpop.blueprints.util.StringFactory;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Edge of a {@link SnapshotGraph}, addressed by its position in the out arrays.
+ */
+public class SnapshotEdge implements Edge {
+
+    private final SnapshotGraph graph;
+    private final int position;
+
+    SnapshotEdge(SnapshotGraph graph, int position) {
+        this.graph = graph;
+        this.position = position;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    /**
+     * Directions are transposed like those of {@code Neo4jEdge}, so a snapshot answers as the live graph does: IN is
+     * the source of the edge and OUT its target.
+     */
+    @Override
+    public Vertex getVertex(Direction direction) throws IllegalArgumentException {
+        if (direction == Direction.BOTH) {
+            throw ExceptionFactory.bothIsNotSupported();
+        }
+        return graph.vertexAt(direction == Direction.IN ? graph.getEdgeSource(position) : graph.getEdgeTarget(position));
+    }
+
+    @Override
+    public String getLabel() {
+        return graph.getEdgeLabel(position);
+    }
+
+    /**
+     * Always null, as snapshots hold no properties.
+     */
+    @Override
+    public <T> T getProperty(String key) {
+        return null;
+    }
+
+    @Override
+    public Set<String> getPropertyKeys() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public void setProperty(String key, Object value) {
+        throw new UnsupportedOperationException("Snapshots are read-only");
+    }
+
+    @Override
+    public <T> T removeProperty(String key) {
+        throw new UnsupportedOperationException("Snapshots are read-only");
+    }
+
+    @Override
+    public void remove() {
+        graph.removeEdge(this);
+    }
+
+    @Override
+    public Object getId() {
+        return graph.getEdgeId(position);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object instanceof SnapshotEdge && ((SnapshotEdge) object).graph == graph && ((SnapshotEdge) object).position == position;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(graph.getEdgeId(position));
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.edgeString(this);
+    }
+
+}
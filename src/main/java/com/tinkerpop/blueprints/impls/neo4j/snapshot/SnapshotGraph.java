@@ -0,0 +1,373 @@
+package com.tinkerpop.blueprints.impls.neo4j.snapshot;
+
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Features;
+import com.tinkerpop.blueprints.Graph;
+import com.tinkerpop.blueprints.GraphQuery;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.util.DefaultGraphQuery;
+import com.tinkerpop.blueprints.util.ExceptionFactory;
+import com.tinkerpop.blueprints.util.StringFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Read-only graph over a snapshot file written by {@link SnapshotWriter}, for analytics that would otherwise make a
+ * round trip per neighbour lookup. The arrays stay in the memory-mapped file rather than on the heap and are shared
+ * by all threads. A snapshot holds structure only: vertices with their labels and edges with their labels, but no
+ * properties.
+ * <p>
+ * Besides the Blueprints API, vertices can be addressed by a dense index from 0 to {@link #getVertexCount()}, ordered
+ * by id, and edges by their position from 0 to {@link #getEdgeCount()}, grouped by source vertex, so that iterative
+ * algorithms can keep their state in plain arrays.
+ */
+public class SnapshotGraph implements Graph {
+
+    private static final Features FEATURES = new Features();
+
+    static {
+        FEATURES.supportsSerializableObjectProperty = false;
+        FEATURES.supportsBooleanProperty = false;
+        FEATURES.supportsDoubleProperty = false;
+        FEATURES.supportsFloatProperty = false;
+        FEATURES.supportsIntegerProperty = false;
+        FEATURES.supportsPrimitiveArrayProperty = false;
+        FEATURES.supportsUniformListProperty = false;
+        FEATURES.supportsMixedListProperty = false;
+        FEATURES.supportsLongProperty = false;
+        FEATURES.supportsMapProperty = false;
+        FEATURES.supportsStringProperty = false;
+        FEATURES.supportsDuplicateEdges = true;
+        FEATURES.supportsSelfLoops = true;
+        FEATURES.isPersistent = true;
+        FEATURES.isWrapper = false;
+        FEATURES.supportsVertexIteration = true;
+        FEATURES.supportsEdgeIteration = true;
+        FEATURES.supportsVertexIndex = false;
+        FEATURES.supportsEdgeIndex = false;
+        FEATURES.ignoresSuppliedIds = true;
+        FEATURES.supportsTransactions = false;
+        FEATURES.supportsIndices = false;
+        FEATURES.supportsKeyIndices = false;
+        FEATURES.supportsVertexKeyIndex = false;
+        FEATURES.supportsEdgeKeyIndex = false;
+        FEATURES.supportsEdgeRetrieval = true;
+        FEATURES.supportsVertexProperties = false;
+        FEATURES.supportsEdgeProperties = false;
+        FEATURES.supportsThreadedTransactions = false;
+    }
+
+    private static final String READ_ONLY = "Snapshots are read-only";
+
+    private final Path file;
+    private final int vertexCount;
+    private final int edgeCount;
+    private final LongBuffer nodeIds;
+    private final IntBuffer nodeLabels;
+    private final IntBuffer outOffsets;
+    private final IntBuffer outTargets;
+    private final IntBuffer outSources;
+    private final IntBuffer outTypes;
+    private final LongBuffer edgeIds;
+    private final IntBuffer inOffsets;
+    private final IntBuffer inSources;
+    private final IntBuffer inEdges;
+    private final LongBuffer sortedEdgeIds;
+    private final IntBuffer sortedEdges;
+    private final List<String> names;
+    private final List<List<String>> labelSets;
+
+    public SnapshotGraph(Path file) throws IOException {
+        this.file = file;
+        // Mappings stay valid once the channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            FileChannel.MapMode mode = FileChannel.MapMode.READ_ONLY;
+            ByteBuffer header = channel.map(mode, 0, SnapshotLayout.HEADER);
+            if (header.getInt() != SnapshotLayout.MAGIC || header.getInt() != SnapshotLayout.VERSION) {
+                throw new IOException("Not a snapshot file: " + file);
+            }
+            SnapshotLayout layout = new SnapshotLayout(header.getInt(), header.getInt());
+            long namesLength = header.getLong();
+            vertexCount = layout.nodeCount;
+            edgeCount = layout.edgeCount;
+            nodeIds = SnapshotLayout.longs(channel, mode, layout.nodeIds, vertexCount);
+            nodeLabels = SnapshotLayout.ints(channel, mode, layout.nodeLabels, vertexCount);
+            outOffsets = SnapshotLayout.ints(channel, mode, layout.outOffsets, vertexCount + 1);
+            outTargets = SnapshotLayout.ints(channel, mode, layout.outTargets, edgeCount);
+            outSources = SnapshotLayout.ints(channel, mode, layout.outSources, edgeCount);
+            outTypes = SnapshotLayout.ints(channel, mode, layout.outTypes, edgeCount);
+            edgeIds = SnapshotLayout.longs(channel, mode, layout.edgeIds, edgeCount);
+            inOffsets = SnapshotLayout.ints(channel, mode, layout.inOffsets, vertexCount + 1);
+            inSources = SnapshotLayout.ints(channel, mode, layout.inSources, edgeCount);
+            inEdges = SnapshotLayout.ints(channel, mode, layout.inEdges, edgeCount);
+            sortedEdgeIds = SnapshotLayout.longs(channel, mode, layout.sortedEdgeIds, edgeCount);
+            sortedEdges = SnapshotLayout.ints(channel, mode, layout.sortedEdges, edgeCount);
+
+            // Names are few and read onto the heap
+            ByteBuffer section = channel.map(mode, layout.names, namesLength);
+            int nameCount = section.getInt();
+            names = new ArrayList<>(nameCount);
+            for (int i = 0; i < nameCount; i++) {
+                byte[] bytes = new byte[section.getInt()];
+                section.get(bytes);
+                names.add(new String(bytes, StandardCharsets.UTF_8));
+            }
+            int setCount = section.getInt();
+            labelSets = new ArrayList<>(setCount);
+            for (int i = 0; i < setCount; i++) {
+                int size = section.getInt();
+                List<String> labels = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    labels.add(names.get(section.getInt()));
+                }
+                labelSets.add(Collections.unmodifiableList(labels));
+            }
+        }
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public int getEdgeCount() {
+        return edgeCount;
+    }
+
+    /**
+     * The index of the vertex with the given id, or -1 if the snapshot holds no such vertex.
+     */
+    public int indexOf(long vertexId) {
+        int low = 0;
+        int high = vertexCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long id = nodeIds.get(mid);
+            if (id < vertexId) {
+                low = mid + 1;
+            } else if (id > vertexId) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public long getVertexId(int index) {
+        return nodeIds.get(index);
+    }
+
+    public List<String> getLabels(int index) {
+        return labelSets.get(nodeLabels.get(index));
+    }
+
+    public int outDegree(int index) {
+        return outOffsets.get(index + 1) - outOffsets.get(index);
+    }
+
+    public int inDegree(int index) {
+        return inOffsets.get(index + 1) - inOffsets.get(index);
+    }
+
+    /**
+     * The index of the target of the k-th outgoing edge of a vertex.
+     */
+    public int outNeighbor(int index, int k) {
+        return outTargets.get(outOffsets.get(index) + k);
+    }
+
+    /**
+     * The index of the source of the k-th incoming edge of a vertex.
+     */
+    public int inNeighbor(int index, int k) {
+        return inSources.get(inOffsets.get(index) + k);
+    }
+
+    public Vertex vertexAt(int index) {
+        return new SnapshotVertex(this, index);
+    }
+
+    public long getEdgeId(int position) {
+        return edgeIds.get(position);
+    }
+
+    public int getEdgeSource(int position) {
+        return outSources.get(position);
+    }
+
+    public int getEdgeTarget(int position) {
+        return outTargets.get(position);
+    }
+
+    public String getEdgeLabel(int position) {
+        return names.get(outTypes.get(position));
+    }
+
+    public Edge edgeAt(int position) {
+        return new SnapshotEdge(this, position);
+    }
+
+    // Graph
+
+    @Override
+    public Features getFeatures() {
+        return FEATURES;
+    }
+
+    @Override
+    public Vertex addVertex(Object id) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public Vertex getVertex(Object id) {
+        if (id == null) {
+            throw ExceptionFactory.vertexIdCanNotBeNull();
+        }
+        Long vertexId = longId(id);
+        int index = vertexId == null ? -1 : indexOf(vertexId);
+        return index < 0 ? null : vertexAt(index);
+    }
+
+    @Override
+    public void removeVertex(Vertex vertex) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public Iterable<Vertex> getVertices() {
+        return () -> IntStream.range(0, vertexCount).mapToObj(this::vertexAt).iterator();
+    }
+
+    /**
+     * Always empty, as snapshots hold no properties.
+     */
+    @Override
+    public Iterable<Vertex> getVertices(String key, Object value) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public Edge addEdge(Object id, Vertex outVertex, Vertex inVertex, String label) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public Edge getEdge(Object id) {
+        if (id == null) {
+            throw ExceptionFactory.edgeIdCanNotBeNull();
+        }
+        Long edgeId = longId(id);
+        if (edgeId == null) {
+            return null;
+        }
+        int low = 0;
+        int high = edgeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long current = sortedEdgeIds.get(mid);
+            if (current < edgeId) {
+                low = mid + 1;
+            } else if (current > edgeId) {
+                high = mid - 1;
+            } else {
+                return edgeAt(sortedEdges.get(mid));
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void removeEdge(Edge edge) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    @Override
+    public Iterable<Edge> getEdges() {
+        return () -> IntStream.range(0, edgeCount).mapToObj(this::edgeAt).iterator();
+    }
+
+    /**
+     * Always empty, as snapshots hold no properties.
+     */
+    @Override
+    public Iterable<Edge> getEdges(String key, Object value) {
+        return Collections.emptyList();
+    }
+
+    @Override
+    public GraphQuery query() {
+        return new DefaultGraphQuery(this);
+    }
+
+    /**
+     * Nothing to release: the mappings are unmapped once they are no longer reachable.
+     */
+    @Override
+    public void shutdown() {
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.graphString(this, file.toString());
+    }
+
+    // The positions of the edges of a vertex, optionally restricted to some labels
+
+    IntStream outPositions(int index, int[] types) {
+        return IntStream.range(outOffsets.get(index), outOffsets.get(index + 1))
+                .filter(position -> matches(outTypes.get(position), types));
+    }
+
+    IntStream inPositions(int index, int[] types) {
+        return IntStream.range(inOffsets.get(index), inOffsets.get(index + 1))
+                .map(inEdges::get)
+                .filter(position -> matches(outTypes.get(position), types));
+    }
+
+    /**
+     * The name indices of the given labels, or null for all labels. Labels the snapshot does not know are left out.
+     */
+    int[] types(String... labels) {
+        if (labels == null || labels.length == 0) {
+            return null;
+        }
+        return Arrays.stream(labels).mapToInt(names::indexOf).filter(type -> type >= 0).toArray();
+    }
+
+    private static boolean matches(int type, int[] types) {
+        if (types == null) {
+            return true;
+        }
+        for (int t : types) {
+            if (t == type) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Long longId(Object id) {
+        if (id instanceof Number) {
+            return ((Number) id).longValue();
+        }
+        try {
+            return Long.valueOf(id.toString());
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+}
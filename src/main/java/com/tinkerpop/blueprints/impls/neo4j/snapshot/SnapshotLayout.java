@@ -0,0 +1,72 @@
+package com.tinkerpop.blueprints.impls.neo4j.snapshot;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Offsets of the sections of a snapshot file. After a fixed header the file holds fixed-width arrays, vertices by
+ * dense index in ascending id order and edges by position in the out arrays, grouped by source vertex:
+ * <pre>
+ *   nodeIds        long[V]    nodeLabels    int[V]     index of the vertex's label set
+ *   outOffsets     int[V+1]   outTargets    int[E]     outSources   int[E]    outTypes  int[E]   edgeIds long[E]
+ *   inOffsets      int[V+1]   inSources     int[E]     inEdges      int[E]    position of the edge in the out arrays
+ *   sortedEdgeIds  long[E]    sortedEdges   int[E]     edge ids ascending with their positions
+ *   names                     label and type names, then the label sets as lists of name indices
+ * </pre>
+ * Each section is mapped on its own, which limits a snapshot to sections of at most 2GB.
+ */
+final class SnapshotLayout {
+
+    static final int MAGIC = 0x4E34534E;
+    static final int VERSION = 1;
+    // magic, version, vertex count, edge count, names length
+    static final int HEADER = 4 + 4 + 4 + 4 + 8;
+
+    final int nodeCount;
+    final int edgeCount;
+    final long nodeIds;
+    final long nodeLabels;
+    final long outOffsets;
+    final long outTargets;
+    final long outSources;
+    final long outTypes;
+    final long edgeIds;
+    final long inOffsets;
+    final long inSources;
+    final long inEdges;
+    final long sortedEdgeIds;
+    final long sortedEdges;
+    final long names;
+
+    SnapshotLayout(int nodeCount, int edgeCount) {
+        if (8L * Math.max(nodeCount, edgeCount) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Snapshots are limited to " + Integer.MAX_VALUE / 8 + " vertices and edges");
+        }
+        this.nodeCount = nodeCount;
+        this.edgeCount = edgeCount;
+        nodeIds = HEADER;
+        nodeLabels = nodeIds + 8L * nodeCount;
+        outOffsets = nodeLabels + 4L * nodeCount;
+        outTargets = outOffsets + 4L * (nodeCount + 1);
+        outSources = outTargets + 4L * edgeCount;
+        outTypes = outSources + 4L * edgeCount;
+        edgeIds = outTypes + 4L * edgeCount;
+        inOffsets = edgeIds + 8L * edgeCount;
+        inSources = inOffsets + 4L * (nodeCount + 1);
+        inEdges = inSources + 4L * edgeCount;
+        sortedEdgeIds = inEdges + 4L * edgeCount;
+        sortedEdges = sortedEdgeIds + 8L * edgeCount;
+        names = sortedEdges + 4L * edgeCount;
+    }
+
+    static IntBuffer ints(FileChannel channel, FileChannel.MapMode mode, long offset, long count) throws IOException {
+        return channel.map(mode, offset, 4 * count).asIntBuffer();
+    }
+
+    static LongBuffer longs(FileChannel channel, FileChannel.MapMode mode, long offset, long count) throws IOException {
+        return channel.map(mode, offset, 8 * count).asLongBuffer();
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.tinkerpop.blueprints.impls.neo4j.snapshot;
+
+import com.tinkerpop.blueprints.Direction;
+import com.tinkerpop.blueprints.Edge;
+import com.tinkerpop.blueprints.Vertex;
+import com.tinkerpop.blueprints.VertexQuery;
+import com.tinkerpop.blueprints.util.DefaultVertexQuery;
+import com.tinkerpop.blueprints.util.StringFactory;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Vertex of a {@link SnapshotGraph}, addressed by its dense index.
+ */
+public class SnapshotVertex implements Vertex {
+
+    private final SnapshotGraph graph;
+    private final int index;
+
+    SnapshotVertex(SnapshotGraph graph, int index) {
+        this.graph = graph;
+        this.index = index;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public List<String> getLabels() {
+        return graph.getLabels(index);
+    }
+
+    @Override
+    public Iterable<Edge> getEdges(Direction direction, String... labels) {
+        int[] types = graph.types(labels);
+        return () -> positions(direction, types).mapToObj(graph::edgeAt).iterator();
+    }
+
+    @Override
+    public Iterable<Vertex> getVertices(Direction direction, String... labels) {
+        int[] types = graph.types(labels);
+        return () -> {
+            IntStream out = direction == Direction.IN ? IntStream.empty() : graph.outPositions(index, types).map(graph::getEdgeTarget);
+            IntStream in = direction == Direction.OUT ? IntStream.empty() : inPositions(direction, types).map(graph::getEdgeSource);
+            return IntStream.concat(out, in).mapToObj(graph::vertexAt).iterator();
+        };
+    }
+
+    private IntStream positions(Direction direction, int[] types) {
+        if (direction == Direction.OUT) {
+            return graph.outPositions(index, types);
+        } else if (direction == Direction.IN) {
+            return graph.inPositions(index, types);
+        }
+        return IntStream.concat(graph.outPositions(index, types), inPositions(direction, types));
+    }
+
+    // For both directions a self-loop is returned once, as outgoing edge, like the live graph does
+    private IntStream inPositions(Direction direction, int[] types) {
+        IntStream in = graph.inPositions(index, types);
+        return direction == Direction.BOTH ? in.filter(position -> graph.getEdgeSource(position) != index) : in;
+    }
+
+    @Override
+    public VertexQuery query() {
+        return new DefaultVertexQuery(this);
+    }
+
+    @Override
+    public Edge addEdge(String label, Vertex inVertex) {
+        return graph.addEdge(null, this, inVertex, label);
+    }
+
+    /**
+     * Always null, as snapshots hold no properties.
+     */
+    @Override
+    public <T> T getProperty(String key) {
+        return null;
+    }
+
+    @Override
+    public Set<String> getPropertyKeys() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public void setProperty(String key, Object value) {
+        throw new UnsupportedOperationException("Snapshots are read-only");
+    }
+
+    @Override
+    public <T> T removeProperty(String key) {
+        throw new UnsupportedOperationException("Snapshots are read-only");
+    }
+
+    @Override
+    public void remove() {
+        graph.removeVertex(this);
+    }
+
+    @Override
+    public Object getId() {
+        return graph.getVertexId(index);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        return object instanceof SnapshotVertex && ((SnapshotVertex) object).graph == graph && ((SnapshotVertex) object).index == index;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(graph.getVertexId(index));
+    }
+
+    @Override
+    public String toString() {
+        return StringFactory.vertexString(this);
+    }
+
+}
@@ -0,0 +1,256 @@
+package com.tinkerpop.blueprints.impls.neo4j.snapshot;
+
+import com.tinkerpop.blueprints.impls.neo4j.util.LongLongHashMap;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a snapshot file from all vertices followed by all edges, see {@link SnapshotLayout}. Vertices are held on the
+ * heap as ids and label sets; edges are spilled to a temporary file next to the snapshot and placed into the
+ * compressed-sparse-row arrays once their number per vertex is known, so memory grows with the vertex count only.
+ * Edges whose endpoints were not added are skipped.
+ */
+public class SnapshotWriter implements Closeable {
+
+    private final Path file;
+    private final Path spill;
+    private final DataOutputStream edges;
+    private final Map<String, Integer> names = new HashMap<>();
+    private final List<String> nameList = new ArrayList<>();
+    private final Map<List<Integer>, Integer> labelSets = new LinkedHashMap<>();
+
+    private long[] nodeIds = new long[1024];
+    private int[] nodeLabels = new int[1024];
+    private int nodeCount;
+    private boolean sorted = true;
+    private long spilled;
+
+    public SnapshotWriter(Path file) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.spill = Files.createTempFile(this.file.getParent(), this.file.getFileName().toString(), ".edges");
+        this.edges = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(spill), 1 << 16));
+    }
+
+    public void addNode(long id, List<String> labels) {
+        if (nodeCount == nodeIds.length) {
+            nodeIds = Arrays.copyOf(nodeIds, nodeCount * 2);
+            nodeLabels = Arrays.copyOf(nodeLabels, nodeCount * 2);
+        }
+        List<Integer> labelSet = new ArrayList<>(labels.size());
+        for (String label : labels) {
+            labelSet.add(name(label));
+        }
+        sorted &= nodeCount == 0 || id > nodeIds[nodeCount - 1];
+        nodeIds[nodeCount] = id;
+        nodeLabels[nodeCount] = labelSets.computeIfAbsent(labelSet, set -> labelSets.size());
+        nodeCount++;
+    }
+
+    public void addEdge(long id, long startId, long endId, String type) throws IOException {
+        edges.writeLong(id);
+        edges.writeLong(startId);
+        edges.writeLong(endId);
+        edges.writeInt(name(type));
+        spilled++;
+    }
+
+    /**
+     * Writes the snapshot file from everything added.
+     */
+    public void finish() throws IOException {
+        edges.close();
+        sortNodes();
+
+        // First pass counts the edges of each vertex, which gives the offsets of their ranges
+        int[] outCursor = new int[nodeCount + 1];
+        int[] inCursor = new int[nodeCount + 1];
+        int edgeCount = 0;
+        try (DataInputStream in = spilled()) {
+            for (long i = 0; i < spilled; i++) {
+                in.readLong();
+                int source = Arrays.binarySearch(nodeIds, 0, nodeCount, in.readLong());
+                int target = Arrays.binarySearch(nodeIds, 0, nodeCount, in.readLong());
+                in.readInt();
+                if (source >= 0 && target >= 0) {
+                    outCursor[source + 1]++;
+                    inCursor[target + 1]++;
+                    if (++edgeCount < 0) {
+                        throw new IllegalArgumentException("Snapshots are limited to " + Integer.MAX_VALUE + " edges");
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            outCursor[i + 1] += outCursor[i];
+            inCursor[i + 1] += inCursor[i];
+        }
+
+        SnapshotLayout layout = new SnapshotLayout(nodeCount, edgeCount);
+        byte[] namesSection = names();
+        Files.deleteIfExists(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileChannel.MapMode mode = FileChannel.MapMode.READ_WRITE;
+            ByteBuffer header = channel.map(mode, 0, SnapshotLayout.HEADER);
+            header.putInt(SnapshotLayout.MAGIC).putInt(SnapshotLayout.VERSION).putInt(nodeCount).putInt(edgeCount).putLong(namesSection.length);
+            channel.map(mode, layout.names, namesSection.length).put(namesSection);
+
+            SnapshotLayout.longs(channel, mode, layout.nodeIds, nodeCount).put(nodeIds, 0, nodeCount);
+            SnapshotLayout.ints(channel, mode, layout.nodeLabels, nodeCount).put(nodeLabels, 0, nodeCount);
+            SnapshotLayout.ints(channel, mode, layout.outOffsets, nodeCount + 1).put(outCursor);
+            SnapshotLayout.ints(channel, mode, layout.inOffsets, nodeCount + 1).put(inCursor);
+
+            // Second pass places each edge at the cursor of its source and of its target
+            IntBuffer outTargets = SnapshotLayout.ints(channel, mode, layout.outTargets, edgeCount);
+            IntBuffer outSources = SnapshotLayout.ints(channel, mode, layout.outSources, edgeCount);
+            IntBuffer outTypes = SnapshotLayout.ints(channel, mode, layout.outTypes, edgeCount);
+            LongBuffer edgeIds = SnapshotLayout.longs(channel, mode, layout.edgeIds, edgeCount);
+            IntBuffer inSources = SnapshotLayout.ints(channel, mode, layout.inSources, edgeCount);
+            IntBuffer inEdges = SnapshotLayout.ints(channel, mode, layout.inEdges, edgeCount);
+            LongBuffer sortedEdgeIds = SnapshotLayout.longs(channel, mode, layout.sortedEdgeIds, edgeCount);
+            IntBuffer sortedEdges = SnapshotLayout.ints(channel, mode, layout.sortedEdges, edgeCount);
+            try (DataInputStream in = spilled()) {
+                for (long i = 0; i < spilled; i++) {
+                    long id = in.readLong();
+                    int source = Arrays.binarySearch(nodeIds, 0, nodeCount, in.readLong());
+                    int target = Arrays.binarySearch(nodeIds, 0, nodeCount, in.readLong());
+                    int type = in.readInt();
+                    if (source >= 0 && target >= 0) {
+                        int position = outCursor[source]++;
+                        outTargets.put(position, target);
+                        outSources.put(position, source);
+                        outTypes.put(position, type);
+                        edgeIds.put(position, id);
+                        int inPosition = inCursor[target]++;
+                        inSources.put(inPosition, source);
+                        inEdges.put(inPosition, position);
+                        sortedEdgeIds.put(position, id);
+                        sortedEdges.put(position, position);
+                    }
+                }
+            }
+            sort(sortedEdgeIds, sortedEdges, edgeCount);
+        }
+    }
+
+    /**
+     * Removes the spilled edges. The snapshot file is left as written by {@link #finish()}, if it was called.
+     */
+    @Override
+    public void close() throws IOException {
+        edges.close();
+        Files.deleteIfExists(spill);
+    }
+
+    private int name(String name) {
+        Integer index = names.get(name);
+        if (index == null) {
+            index = nameList.size();
+            names.put(name, index);
+            nameList.add(name);
+        }
+        return index;
+    }
+
+    // Vertices normally arrive in id order from a store scan; otherwise they are sorted with their label sets
+    private void sortNodes() {
+        if (sorted) {
+            return;
+        }
+        LongLongHashMap labels = new LongLongHashMap(nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            labels.put(nodeIds[i], nodeLabels[i]);
+        }
+        Arrays.sort(nodeIds, 0, nodeCount);
+        int distinct = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (distinct == 0 || nodeIds[i] != nodeIds[distinct - 1]) {
+                nodeIds[distinct] = nodeIds[i];
+                nodeLabels[distinct] = (int) labels.get(nodeIds[i], 0);
+                distinct++;
+            }
+        }
+        nodeCount = distinct;
+    }
+
+    private byte[] names() {
+        List<byte[]> encoded = new ArrayList<>(nameList.size());
+        int size = 8;
+        for (String name : nameList) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            size += 4 + bytes.length;
+        }
+        for (List<Integer> labelSet : labelSets.keySet()) {
+            size += 4 + 4 * labelSet.size();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(size);
+        buffer.putInt(encoded.size());
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length).put(bytes);
+        }
+        buffer.putInt(labelSets.size());
+        for (List<Integer> labelSet : labelSets.keySet()) {
+            buffer.putInt(labelSet.size());
+            labelSet.forEach(buffer::putInt);
+        }
+        return buffer.array();
+    }
+
+    private DataInputStream spilled() throws IOException {
+        return new DataInputStream(new BufferedInputStream(Files.newInputStream(spill), 1 << 16));
+    }
+
+    // Heapsort of the edge ids with their positions, in place on the mapped buffers
+    private static void sort(LongBuffer keys, IntBuffer values, int size) {
+        for (int i = size / 2 - 1; i >= 0; i--) {
+            siftDown(keys, values, i, size);
+        }
+        for (int end = size - 1; end > 0; end--) {
+            swap(keys, values, 0, end);
+            siftDown(keys, values, 0, end);
+        }
+    }
+
+    private static void siftDown(LongBuffer keys, IntBuffer values, int root, int size) {
+        while (2 * root + 1 < size) {
+            int child = 2 * root + 1;
+            if (child + 1 < size && keys.get(child + 1) > keys.get(child)) {
+                child++;
+            }
+            if (keys.get(root) >= keys.get(child)) {
+                return;
+            }
+            swap(keys, values, root, child);
+            root = child;
+        }
+    }
+
+    private static void swap(LongBuffer keys, IntBuffer values, int i, int j) {
+        long key = keys.get(i);
+        keys.put(i, keys.get(j));
+        keys.put(j, key);
+        int value = values.get(i);
+        values.put(i, values.get(j));
+        values.put(j, value);
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.tinkerpop.blueprints.impls.neo4j.util;
+
+import java.util.Arrays;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing hash set of longs held in a flat array, for visited and dedup sets of element ids.
+ * {@link Long#MIN_VALUE} is reserved and cannot be added.
+ */
+public class LongHashSet {
+
+    private static final long FREE = Long.MIN_VALUE;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+
+    public LongHashSet() {
+        this(16);
+    }
+
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 4 / 3) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * @return true if the key was not yet in the set
+     */
+    public boolean add(long key) {
+        if (key == FREE) {
+            throw new IllegalArgumentException("Long.MIN_VALUE cannot be added");
+        }
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            return false;
+        }
+        if ((size + 1) * 4L > keys.length * 3L) {
+            resize();
+            slot = slot(key);
+        }
+        keys[slot] = key;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long key) {
+        return keys[slot(key)] == key;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE);
+        size = 0;
+    }
+
+    public void forEach(LongConsumer action) {
+        for (long key : keys) {
+            if (key != FREE) {
+                action.accept(key);
+            }
+        }
+    }
+
+    /**
+     * The keys in no particular order.
+     */
+    public long[] toArray() {
+        long[] array = new long[size];
+        int i = 0;
+        for (long key : keys) {
+            if (key != FREE) {
+                array[i++] = key;
+            }
+        }
+        return array;
+    }
+
+    // The slot holding the key, or the free slot where it belongs
+    private int slot(long key) {
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        allocate(oldKeys.length * 2);
+        for (long key : oldKeys) {
+            if (key != FREE) {
+                keys[slot(key)] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE);
+        mask = capacity - 1;
+    }
+
+    // Finalizer of MurmurHash3, as in LongLongHashMap
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+}
@@ -1,15 +1,28 @@
 package com.tinkerpop.blueprints.impls.neo4j;
 
 import com.tinkerpop.blueprints.*;
+import com.tinkerpop.blueprints.impls.neo4j.snapshot.SnapshotGraph;
+import com.tinkerpop.blueprints.impls.neo4j.util.LongHashSet;
 import org.apache.commons.configuration.Configuration;
 import org.apache.commons.configuration.PropertiesConfiguration;
+import org.junit.AfterClass;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.ClassRule;
 import org.junit.Test;
 import org.neo4j.harness.junit.Neo4jRule;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class GraphPerfTest {
 
@@ -20,13 +33,231 @@ public class GraphPerfTest {
 
     @BeforeClass
     public static void createNeo4jConnection() throws Exception {
+        graphDb = (Neo4jGraph) GraphFactory.open(createConfig());
+    }
+
+    @AfterClass
+    public static void closeNeo4jConnection() {
+        graphDb.shutdown();
+    }
+
+    private static Configuration createConfig() {
         Configuration config = new PropertiesConfiguration();
         config.setProperty("blueprints.graph", "com.tinkerpop.blueprints.impls.neo4j.Neo4jGraph");
         config.setProperty("blueprints.neo4j.url", remoteDb.boltURI().toString());
         config.setProperty("blueprints.neo4j.certFile", TestUtil.defaultCertFile(remoteDb.getConfig()).toString());
-        graphDb = (Neo4jGraph) GraphFactory.open(config);
+        return config;
+    }
+
+    @Test
+    public void writeBehindTest() {
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.writeBehind", true);
+        Neo4jGraph writeBehindGraph = (Neo4jGraph) GraphFactory.open(config);
+        try {
+            Vertex v1 = writeBehindGraph.addVertex(null);
+            v1.setProperty("wb1", "wb1v1");
+            v1.setProperty("wb2", "wb2v");
+            v1.setProperty(Neo4jGraph.NODE_GLOBAL_LABEL, "Red");
+            Vertex v2 = writeBehindGraph.addVertex(null);
+            Edge e1 = writeBehindGraph.addEdge(null, v1, v2, "CONNECTS_TO");
+            e1.setProperty("weight", 2);
+            // Pending state is visible locally before anything is sent, and hashing does not send it
+            Assert.assertEquals("wb1v1", v1.getProperty("wb1"));
+            Assert.assertEquals(Long.valueOf(2), e1.getProperty("weight"));
+            Set<Element> hashed = new HashSet<>(Arrays.asList(v1, v2, e1));
+            Assert.assertFalse(writeBehindGraph.getMutationBuffer().isEmpty());
+            writeBehindGraph.commit();
+
+            Assert.assertTrue(hashed.contains(v1) && hashed.contains(e1));
+            Vertex stored = graphDb.getVertex(v1.getId());
+            Assert.assertEquals("wb1v1", stored.getProperty("wb1"));
+            Assert.assertTrue(((Neo4jVertex) stored).getLabels().contains("Red"));
+            Edge storedEdge = stored.getEdges(Direction.OUT, "CONNECTS_TO").iterator().next();
+            Assert.assertEquals(e1.getId(), storedEdge.getId());
+            Assert.assertEquals(Long.valueOf(2), storedEdge.getProperty("weight"));
+
+            // Updates and removals of saved elements are buffered too, label removals in order with additions
+            List<String> sent = new ArrayList<>();
+            writeBehindGraph.addStatementListener(new Neo4jStatementListener() {
+                @Override
+                public void statementCompleted(String statement, Map<String, Object> parameters, long nanos, long rows, Throwable error) {
+                    sent.add(statement);
+                }
+            });
+            v1.setProperty("wb1", "wb1v2");
+            Assert.assertEquals("wb2v", v1.removeProperty("wb2"));
+            ((Neo4jVertex) v1).addLabel("WbBlue");
+            ((Neo4jVertex) v1).removeLabel("Red");
+            ((Neo4jVertex) v1).removeLabel("WbBlue");
+            ((Neo4jVertex) v1).addLabel("WbGreen");
+            Assert.assertEquals(Collections.emptyList(), sent);
+            writeBehindGraph.commit();
+            graphDb.commit();
+
+            stored = graphDb.getVertex(v1.getId());
+            Assert.assertEquals("wb1v2", stored.getProperty("wb1"));
+            Assert.assertNull(stored.getProperty("wb2"));
+            Set<String> labels = ((Neo4jVertex) stored).getLabels();
+            Assert.assertTrue(labels.contains("WbGreen"));
+            Assert.assertFalse(labels.contains("Red") || labels.contains("WbBlue"));
+            graphDb.commit();
+        } finally {
+            writeBehindGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void statementTest() {
+        // Statements are built once per label and shared between calls
+        Assert.assertSame(Statements.addLabel("Red"), Statements.addLabel("Red"));
+        Assert.assertSame(Statements.adjacent(Direction.OUT, true, Statements.Adjacent.EDGES, false),
+                Statements.adjacent(Direction.OUT, true, Statements.Adjacent.EDGES, false));
+
+        Vertex v1 = graphDb.addVertex(null);
+        v1.setProperty("sm1", new int[]{1, 2});
+        v1.setProperty("sm2", "sm2v");
+        Assert.assertEquals("sm2v", v1.removeProperty("sm2"));
+        graphDb.commit();
+        Vertex stored = graphDb.getVertex(v1.getId());
+        Assert.assertEquals(Collections.singleton("sm1"), stored.getPropertyKeys());
+        graphDb.commit();
     }
 
+    @Test
+    public void bulkLoadTest() {
+        Neo4jBulkLoader loader = new Neo4jBulkLoader(graphDb, 10, 30);
+        loader.loadVertices(java.util.stream.LongStream.range(1000, 1100)
+                .mapToObj(key -> new Neo4jBulkLoader.VertexRecord(key, Collections.singletonMap("bl1", key))));
+        loader.loadEdges(java.util.stream.LongStream.range(1000, 1099)
+                .mapToObj(key -> new Neo4jBulkLoader.EdgeRecord(key, key + 1, "BULK", null)));
+        loader.close();
+        Assert.assertEquals(100, loader.getVertexCount());
+        Assert.assertEquals(99, loader.getEdgeCount());
+
+        Vertex v = graphDb.getVertex(loader.getVertexId(1000));
+        int count = 1;
+        Iterator<Edge> edges;
+        while ((edges = v.getEdges(Direction.OUT, "BULK").iterator()).hasNext()) {
+            v = edges.next().getVertex(Direction.OUT);
+            count++;
+        }
+        Assert.assertEquals(100, count);
+        Assert.assertEquals(Long.valueOf(1099), v.getProperty("bl1"));
+        Assert.assertEquals(loader.getVertexId(1099), v.getId());
+        graphDb.commit();
+
+        Neo4jBulkLoader failing = new Neo4jBulkLoader(graphDb, 10, 30);
+        failing.addEdge(1, 2, "BULK", null);
+        try {
+            failing.close();
+            Assert.fail("Edges between unknown keys must fail the load");
+        } catch (IllegalStateException expected) {
+            Assert.assertTrue(expected.getCause() instanceof IllegalArgumentException);
+        }
+
+        // A loader that is never closed must not keep a session between commits, and is aborted on shutdown
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.sessionPoolSize", 2);
+        config.setProperty("blueprints.neo4j.sessionPoolTimeout", 2000);
+        Neo4jGraph smallPool = (Neo4jGraph) GraphFactory.open(config);
+        // The graph keeps one of the two sessions, leaving one for the loaders
+        Assert.assertFalse(smallPool.getVertices("bl2", "bl2v").iterator().hasNext());
+        Neo4jBulkLoader idle = new Neo4jBulkLoader(smallPool, 1, 1);
+        idle.addVertex(2000, Collections.singletonMap("bl2", "bl2v"));
+        Neo4jBulkLoader next = new Neo4jBulkLoader(smallPool, 1, 1);
+        next.addVertex(2001, Collections.singletonMap("bl2", "bl2v"));
+        next.close();
+        Neo4jBulkLoader abandoned = new Neo4jBulkLoader(smallPool, 1, 100);
+        abandoned.addVertex(2002, Collections.singletonMap("bl3", "bl3v"));
+        smallPool.shutdown();
+        try {
+            abandoned.close();
+            Assert.fail("A loader aborted by shutdown must fail");
+        } catch (IllegalStateException expected) {
+        }
+        int loaded = 0;
+        for (Vertex loadedVertex : graphDb.getVertices("bl2", "bl2v")) {
+            loaded++;
+        }
+        Assert.assertEquals(2, loaded);
+        Assert.assertFalse(graphDb.getVertices("bl3", "bl3v").iterator().hasNext());
+        graphDb.commit();
+    }
+
+    @Test
+    public void asyncTest() throws Exception {
+        Neo4jAsyncGraph async = new Neo4jAsyncGraph(graphDb);
+        List<CompletableFuture<Vertex>> added = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            added.add(async.addVertex(Collections.singletonMap("as1", i)));
+        }
+        CompletableFuture.allOf(added.toArray(new CompletableFuture<?>[0])).get();
+        Vertex hub = added.get(0).get();
+
+        List<CompletableFuture<Edge>> edges = new ArrayList<>();
+        for (int i = 1; i < added.size(); i++) {
+            edges.add(async.addEdge(hub, added.get(i).get(), "ASYNC"));
+        }
+        CompletableFuture.allOf(edges.toArray(new CompletableFuture<?>[0])).get();
+
+        // Independent lookups are queued together and answered in shared round trips
+        List<CompletableFuture<Vertex>> lookups = new ArrayList<>();
+        for (CompletableFuture<Vertex> vertex : added) {
+            lookups.add(async.getVertex(vertex.get().getId()));
+        }
+        for (int i = 0; i < lookups.size(); i++) {
+            Assert.assertEquals(Long.valueOf(i), lookups.get(i).get().getProperty("as1"));
+        }
+
+        long sum = async.getEdges(hub, Direction.OUT, "ASYNC")
+                .thenApply(list -> list.stream().mapToLong(e -> e.getVertex(Direction.OUT).<Long>getProperty("as1")).sum())
+                .get();
+        Assert.assertEquals(190, sum);
+        Assert.assertEquals(19, async.getVertices(hub, Direction.OUT).get().size());
+        Assert.assertEquals(19, async.getVertices(hub, Direction.OUT, (String[]) null).get().size());
+
+        Vertex updated = async.setProperty(hub, "as2", "as2v").get();
+        Assert.assertEquals("as2v", updated.getProperty("as2"));
+        Assert.assertNull(hub.getProperty("as2"));
+        Assert.assertEquals("as2v", graphDb.getVertex(hub.getId()).getProperty("as2"));
+        graphDb.commit();
+
+        async.removeVertex(hub).get();
+        Assert.assertNull(async.getVertex(hub.getId()).get());
+        try {
+            async.getEdge("not an id").get();
+            Assert.fail("A failing statement must fail its future");
+        } catch (ExecutionException expected) {
+        }
+
+        // Requests sent in one round trip succeed or fail on their own
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            CountDownLatch latch = new CountDownLatch(1);
+            executor.execute(() -> {
+                try {
+                    latch.await();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            Neo4jAsyncGraph batched = new Neo4jAsyncGraph(graphDb, executor, 1, 10);
+            CompletableFuture<Vertex> before = batched.addVertex(Collections.singletonMap("as3", 1));
+            CompletableFuture<Vertex> failing = batched.addVertex(Collections.singletonMap("as3", Collections.singletonMap("nested", 1)));
+            CompletableFuture<Vertex> after = batched.addVertex(Collections.singletonMap("as3", 2));
+            latch.countDown();
+            try {
+                failing.get();
+                Assert.fail("A map is not a property value");
+            } catch (ExecutionException expected) {
+            }
+            Assert.assertEquals(Long.valueOf(1), graphDb.getVertex(before.get().getId()).getProperty("as3"));
+            Assert.assertEquals(Long.valueOf(2), graphDb.getVertex(after.get().getId()).getProperty("as3"));
+        } finally {
+            executor.shutdown();
+        }
+    }
 
     @Test
     public void labelTest() {
@@ -40,6 +271,888 @@ public class GraphPerfTest {
         Assert.assertTrue(((Neo4jVertex) v1).getLabels().containsAll(Arrays.asList("Red", "Green", "Blue")));
     }
 
+    @Test
+    public void streamingTest() {
+        for (int i = 0; i < 3; i++) {
+            graphDb.addVertex(null).setProperty("st1", "st1v");
+        }
+        graphDb.commit();
+
+        // Abandon the cursor after the first element, then make sure the session is still usable
+        CloseableIterable<Vertex> vertices = (CloseableIterable<Vertex>) graphDb.getVertices("st1", "st1v");
+        Iterator<Vertex> iter = vertices.iterator();
+        Assert.assertTrue(iter.hasNext());
+        Assert.assertEquals("st1v", iter.next().getProperty("st1"));
+        vertices.close();
+
+        int count = 0;
+        for (Vertex v : graphDb.getVertices("st1", "st1v")) {
+            v.remove();
+            count++;
+        }
+        Assert.assertEquals(3, count);
+        graphDb.commit();
+    }
+
+    @Test
+    public void pagedScanTest() {
+        Set<Object> created = new HashSet<>();
+        Vertex last = null;
+        for (int i = 0; i < 5; i++) {
+            Vertex v = graphDb.addVertex(null);
+            if (last != null) {
+                graphDb.addEdge(null, last, v, "PAGED");
+            }
+            created.add(v.getId());
+            last = v;
+        }
+        graphDb.commit();
+
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.scanPageSize", 2);
+        Neo4jGraph pagedGraph = (Neo4jGraph) GraphFactory.open(config);
+        try {
+            long lastId = -1;
+            for (Vertex v : pagedGraph.getVertices()) {
+                long id = (Long) v.getId();
+                Assert.assertTrue(id > lastId);
+                lastId = id;
+                created.remove(v.getId());
+            }
+            Assert.assertTrue(created.isEmpty());
+
+            int edges = 0;
+            int pagedTotal = 0;
+            for (Edge e : pagedGraph.getEdges()) {
+                if ("PAGED".equals(e.getLabel())) {
+                    edges++;
+                }
+                pagedTotal++;
+            }
+            Assert.assertEquals(4, edges);
+
+            // Both modes return each edge once
+            edges = 0;
+            int total = 0;
+            for (Edge e : graphDb.getEdges()) {
+                if ("PAGED".equals(e.getLabel())) {
+                    edges++;
+                }
+                total++;
+            }
+            Assert.assertEquals(4, edges);
+            Assert.assertEquals(pagedTotal, total);
+        } finally {
+            pagedGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void parallelScanTest() {
+        for (int i = 0; i < 10; i++) {
+            graphDb.addVertex(null).setProperty("ps1", i);
+        }
+        graphDb.commit();
+
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.parallelScanChunkSize", 3);
+        Neo4jGraph parallelGraph = (Neo4jGraph) GraphFactory.open(config);
+        try {
+            long sum = parallelGraph.parallelVertices()
+                    .filter(v -> v.getProperty("ps1") != null)
+                    .mapToLong(v -> v.<Long>getProperty("ps1"))
+                    .sum();
+            Assert.assertEquals(45, sum);
+        } finally {
+            parallelGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void cacheTest() {
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.cacheSize", 100);
+        Neo4jGraph cachedGraph = (Neo4jGraph) GraphFactory.open(config);
+        try {
+            Vertex v1 = cachedGraph.addVertex(null);
+            Vertex v2 = cachedGraph.addVertex(null);
+            Edge e1 = cachedGraph.addEdge(null, v1, v2, "CACHED");
+            cachedGraph.commit();
+
+            Assert.assertSame(v1, cachedGraph.getVertex(v1.getId()));
+            Assert.assertSame(e1, cachedGraph.getEdge(e1.getId()));
+            Assert.assertSame(v2, e1.getVertex(Direction.OUT));
+            Assert.assertSame(e1, v1.getEdges(Direction.OUT, "CACHED").iterator().next());
+            // Edge.getVertex is answered by the endpoint attached in addEdge, without a cache lookup
+            Assert.assertEquals(2, cachedGraph.getVertexCache().getHits() + cachedGraph.getEdgeCache().getHits());
+
+            cachedGraph.rollback();
+            Assert.assertEquals(0, cachedGraph.getVertexCache().size());
+            Vertex reloaded = cachedGraph.getVertex(v1.getId());
+            Assert.assertNotSame(v1, reloaded);
+            Assert.assertEquals(v1.getId(), reloaded.getId());
+            Assert.assertEquals(1, cachedGraph.getVertexCache().getMisses());
+            cachedGraph.commit();
+        } finally {
+            cachedGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void projectionTest() {
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.projectedKeys", "projectedName, projectedAge");
+        Neo4jGraph projectedGraph = (Neo4jGraph) GraphFactory.open(config);
+        try {
+            Vertex v1 = projectedGraph.addVertex(null);
+            v1.setProperty("projectedName", "marko");
+            v1.setProperty("projectedAge", 29);
+            v1.setProperty("projectedBio", "wide");
+            Vertex v2 = projectedGraph.addVertex(null);
+            v1.addEdge("PROJECTED", v2);
+            projectedGraph.commit();
+
+            Neo4jVertex loaded = (Neo4jVertex) projectedGraph.getVertex(v1.getId());
+            Assert.assertEquals(2, loaded.getRawElement().size());
+            Assert.assertEquals("marko", loaded.getProperty("projectedName"));
+            Assert.assertTrue(loaded.getLabels().contains(Neo4jGraph.NODE_GLOBAL_INDEX));
+            Assert.assertEquals("wide", loaded.getProperty("projectedBio"));
+            Assert.assertEquals(3, loaded.getRawElement().size());
+
+            Neo4jVertex adjacent = (Neo4jVertex) v2.getVertices(Direction.IN, "PROJECTED").iterator().next();
+            adjacent.setProperty("projectedAge", 30);
+            Assert.assertEquals(Long.valueOf(30), adjacent.getProperty("projectedAge"));
+            Assert.assertEquals(new HashSet<>(Arrays.asList("projectedName", "projectedAge", "projectedBio")), adjacent.getPropertyKeys());
+            projectedGraph.commit();
+
+            Vertex found = projectedGraph.getVertices("projectedName", "marko").iterator().next();
+            Assert.assertEquals(Long.valueOf(30), found.getProperty("projectedAge"));
+            Assert.assertEquals("wide", found.getProperty("projectedBio"));
+            Assert.assertNull(found.getProperty("projectedMissing"));
+            projectedGraph.commit();
+        } finally {
+            projectedGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void traversalTest() {
+        Neo4jVertex root = (Neo4jVertex) graphDb.addVertex(null);
+        Vertex a1 = graphDb.addVertex(null);
+        Vertex a2 = graphDb.addVertex(null);
+        Vertex b1 = graphDb.addVertex(null);
+        root.addEdge("TA", a1);
+        root.addEdge("TA", a2);
+        b1.addEdge("TB", a1);
+        b1.addEdge("TB", a2);
+        a1.addEdge("TC", b1);
+        graphDb.commit();
+
+        // root -TA-> a1/a2 <-TB- b1, reached along two paths
+        Assert.assertEquals(2, root.traverse().out("TA").in("TB").count());
+        Assert.assertEquals(1, root.traverse().out("TA").in("TB").dedup().count());
+        Vertex reached = root.traverse().out("TA").in("TB").dedup().vertices().iterator().next();
+        Assert.assertEquals(b1.getId(), reached.getId());
+        Assert.assertEquals(1, root.traverse().out("TA").in("TB").limit(1).count());
+
+        List<Vertex> path = root.traverse().out("TA").in("TB").paths().iterator().next();
+        Assert.assertEquals(3, path.size());
+        Assert.assertEquals(root.getId(), path.get(0).getId());
+        Assert.assertEquals(b1.getId(), path.get(2).getId());
+
+        // Up to three hops along any edge type, starting vertex included
+        Assert.assertEquals(4, root.traverse().both().times(0, 3).dedup().count());
+        Assert.assertEquals(2, graphDb.traverse(a1, a2).in("TA").count());
+        Assert.assertEquals(0, root.traverse().out("TA").out("TC").times(2).count());
+        // Steps after a repetition are taken once, after it
+        Assert.assertEquals(2, root.traverse().both().times(0, 1).out("TA").dedup().count());
+        graphDb.commit();
+    }
+
+    @Test
+    public void identityTest() {
+        Neo4jVertex v1 = (Neo4jVertex) graphDb.addVertex(null);
+        Vertex v2 = graphDb.addVertex(null);
+        Edge e1 = graphDb.addEdge(null, v1, v2, "IDENTITY");
+        v1.setProperty("id1", "id1v");
+        graphDb.commit();
+
+        Assert.assertEquals(v1.getId(), v1.getLongId());
+        Vertex reloaded = graphDb.getVertex(v1.getId());
+        Assert.assertEquals(v1, reloaded);
+        Assert.assertEquals(v1.hashCode(), reloaded.hashCode());
+        Edge reloadedEdge = graphDb.getEdge(e1.getId());
+        Assert.assertEquals(e1, reloadedEdge);
+        Assert.assertEquals(1, new HashSet<>(Arrays.asList(e1, reloadedEdge)).size());
+
+        // Key and label views are shared until the vertex changes
+        Set<String> keys = v1.getPropertyKeys();
+        Assert.assertSame(keys, v1.getPropertyKeys());
+        Assert.assertSame(v1.getLabels(), v1.getLabels());
+        try {
+            keys.add("id2");
+            Assert.fail("Key views are read-only");
+        } catch (UnsupportedOperationException expected) {
+        }
+        v1.setProperty("id2", "id2v");
+        Assert.assertEquals(new HashSet<>(Arrays.asList("id1", "id2")), v1.getPropertyKeys());
+
+        graphDb.removeVertices(Arrays.asList(v1, v2, reloaded));
+        Assert.assertEquals(Arrays.asList(null, null), graphDb.getVertices(Arrays.asList(v1.getId(), v1.getId())));
+        graphDb.commit();
+
+        LongHashSet ids = new LongHashSet(2);
+        for (long id = 0; id < 100; id++) {
+            Assert.assertTrue(ids.add(id * 31));
+        }
+        Assert.assertFalse(ids.add(31));
+        Assert.assertEquals(100, ids.size());
+        Assert.assertTrue(ids.contains(99 * 31));
+        Assert.assertFalse(ids.contains(1));
+        Assert.assertEquals(100, ids.toArray().length);
+    }
+
+    @Test
+    public void metricsTest() throws Exception {
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.metrics", true);
+        Neo4jGraph measuredGraph = (Neo4jGraph) GraphFactory.open(config);
+        try {
+            List<String> completed = new ArrayList<>();
+            measuredGraph.addStatementListener(new Neo4jStatementListener() {
+                @Override
+                public void statementCompleted(String statement, Map<String, Object> parameters, long nanos, long rows, Throwable error) {
+                    completed.add(statement);
+                }
+            });
+            Vertex v1 = measuredGraph.addVertex(null);
+            measuredGraph.getVertex(v1.getId());
+            measuredGraph.getVertex(v1.getId());
+            measuredGraph.commit();
+
+            Neo4jMetrics metrics = measuredGraph.getMetrics();
+            Assert.assertEquals(Arrays.asList(Statements.CREATE_VERTEX, Statements.GET_VERTEX, Statements.GET_VERTEX), completed);
+            Assert.assertEquals(2, metrics.getStatements().get(Statements.GET_VERTEX).getCalls());
+            Assert.assertEquals(2, metrics.getStatements().get(Statements.GET_VERTEX).getRows());
+            Assert.assertEquals(3, metrics.getStatementCount());
+            Assert.assertEquals(1, metrics.getTransactionCount());
+            Assert.assertEquals(0, metrics.getRollbackCount());
+            Assert.assertTrue(metrics.getStatements().get(Statements.GET_VERTEX).getLatency().getValueAtPercentile(99) > 0);
+
+            // Unread results are reported when their transaction ends
+            measuredGraph.getVertices();
+            measuredGraph.rollback();
+            Assert.assertEquals(1, metrics.getStatements().get(Statements.SCAN_VERTICES).getCalls());
+            Assert.assertEquals(1, metrics.getRollbackCount());
+
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            Set<ObjectName> names = server.queryNames(new ObjectName("com.tinkerpop.blueprints.impls.neo4j:type=Neo4jGraph,*"), null);
+            Assert.assertEquals(1, names.size());
+            Assert.assertEquals(4L, server.getAttribute(names.iterator().next(), "StatementCount"));
+        } finally {
+            measuredGraph.shutdown();
+        }
+        Assert.assertNull(graphDb.getMetrics());
+
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        parameters.put("id", 1L);
+        parameters.put("props", Collections.singletonMap("secret", "value"));
+        Assert.assertEquals("{id: Long, props: SingletonMap}", SlowStatementLog.redact(parameters));
+    }
+
+    @Test
+    public void degreeTest() {
+        Neo4jVertex hub = (Neo4jVertex) graphDb.addVertex(null);
+        Vertex other = graphDb.addVertex(null);
+        for (int i = 0; i < 3; i++) {
+            graphDb.addEdge(null, hub, graphDb.addVertex(null), "DA").setProperty("dw", i);
+        }
+        graphDb.addEdge(null, hub, other, "DB");
+        graphDb.addEdge(null, hub, other, "DB");
+        graphDb.addEdge(null, other, hub, "DA");
+        graphDb.commit();
+
+        Assert.assertEquals(3, hub.countEdges(Direction.OUT, "DA"));
+        Assert.assertEquals(5, hub.countEdges(Direction.OUT));
+        Assert.assertEquals(1, hub.countEdges(Direction.IN, "DA"));
+        Assert.assertEquals(6, hub.countEdges(Direction.BOTH, "DA", "DB"));
+        Assert.assertEquals(0, hub.countEdges(Direction.OUT, "DC"));
+        Assert.assertEquals(4, hub.query().direction(Direction.BOTH).labels("DA").count());
+        // Predicates and limits still count the matched edges
+        Assert.assertEquals(2, hub.query().direction(Direction.OUT).labels("DA").has("dw", Compare.GREATER_THAN_EQUAL, 1).count());
+        Assert.assertEquals(2, hub.query().direction(Direction.OUT).limit(2).count());
+
+        long[] counts = graphDb.countEdges(Arrays.asList(other, hub, other), Direction.OUT, "DB");
+        Assert.assertArrayEquals(new long[]{0, 2, 0}, counts);
+        graphDb.commit();
+    }
+
+    @Test
+    public void pagedAdjacencyTest() {
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.adjacencyPageSize", 2);
+        config.setProperty("blueprints.neo4j.adjacencyMaxPageSize", 3);
+        config.setProperty("blueprints.neo4j.prefetchAdjacent", true);
+        Neo4jGraph pagedGraph = (Neo4jGraph) GraphFactory.open(config);
+        try {
+            List<Integer> pageSizes = new ArrayList<>();
+            pagedGraph.addStatementListener(new Neo4jStatementListener() {
+                @Override
+                public void statementCompleted(String statement, Map<String, Object> parameters, long nanos, long rows, Throwable error) {
+                    if (parameters.containsKey("pageSize")) {
+                        pageSizes.add(((Number) parameters.get("pageSize")).intValue());
+                    }
+                }
+            });
+            Vertex hub = pagedGraph.addVertex(null);
+            Set<Object> leaves = new HashSet<>();
+            for (int i = 0; i < 5; i++) {
+                Vertex leaf = pagedGraph.addVertex(null);
+                leaves.add(leaf.getId());
+                pagedGraph.addEdge(null, hub, leaf, "ADJACENT_PAGED").setProperty("pw", i);
+            }
+
+            // Pages run in the open transaction, follow edge ids and double in size up to the maximum
+            long lastId = -1;
+            Set<Object> reached = new HashSet<>();
+            for (Edge edge : hub.getEdges(Direction.OUT, "ADJACENT_PAGED")) {
+                Assert.assertTrue((Long) edge.getId() > lastId);
+                lastId = (Long) edge.getId();
+                reached.add(edge.getVertex(Direction.OUT).getId());
+            }
+            Assert.assertEquals(leaves, reached);
+            Assert.assertEquals(Arrays.asList(2, 3, 3), pageSizes);
+
+            pageSizes.clear();
+            int count = 0;
+            for (Vertex vertex : hub.query().direction(Direction.OUT).limit(3).vertices()) {
+                Assert.assertTrue(leaves.contains(vertex.getId()));
+                count++;
+            }
+            Assert.assertEquals(3, count);
+            Assert.assertEquals(Arrays.asList(2, 1), pageSizes);
+
+            count = 0;
+            for (Edge edge : hub.query().direction(Direction.OUT).has("pw", Compare.GREATER_THAN, 1).edges()) {
+                Assert.assertTrue(edge.<Long>getProperty("pw") > 1);
+                count++;
+            }
+            Assert.assertEquals(3, count);
+
+            // A self-loop ending the first page is returned once, as without pages
+            Vertex looped = pagedGraph.addVertex(null);
+            pagedGraph.addEdge(null, looped, pagedGraph.addVertex(null), "ADJACENT_LOOP");
+            Edge loop = pagedGraph.addEdge(null, looped, looped, "ADJACENT_LOOP");
+            pagedGraph.addEdge(null, pagedGraph.addVertex(null), looped, "ADJACENT_LOOP");
+            pagedGraph.commit();
+            List<Object> paged = new ArrayList<>();
+            for (Edge edge : looped.getEdges(Direction.BOTH, "ADJACENT_LOOP")) {
+                paged.add(edge.getId());
+            }
+            Assert.assertEquals(loop.getId(), paged.get(1));
+            List<Object> streamed = new ArrayList<>();
+            for (Edge edge : graphDb.getVertex(looped.getId()).getEdges(Direction.BOTH, "ADJACENT_LOOP")) {
+                streamed.add(edge.getId());
+            }
+            Assert.assertEquals(3, paged.size());
+            Assert.assertEquals(new HashSet<>(paged), new HashSet<>(streamed));
+            Assert.assertEquals(3, streamed.size());
+            pagedGraph.commit();
+        } finally {
+            pagedGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void edgeKeyIndexTest() {
+        Vertex a = graphDb.addVertex(null);
+        Vertex b = graphDb.addVertex(null);
+        Edge existing = graphDb.addEdge(null, a, b, "EDGE_INDEXED");
+        existing.setProperty("eix1", "old");
+        graphDb.commit();
+
+        graphDb.createKeyIndex("eix1", Edge.class);
+        Assert.assertTrue(graphDb.getIndexedKeys(Edge.class).contains("eix1"));
+        Assert.assertFalse(graphDb.getIndexedKeys(Vertex.class).contains("eix1"));
+        Assert.assertEquals(Collections.singletonList(existing), edges(graphDb.getEdges("eix1", "old")));
+
+        // Each edge is found once, and changes reach the index as they are written
+        Edge created = graphDb.addEdge(null, b, a, "EDGE_INDEXED");
+        created.setProperty("eix1", "new");
+        existing.setProperty("eix1", "new");
+        graphDb.commit();
+        Assert.assertEquals(new HashSet<>(Arrays.asList(existing, created)), new HashSet<>(edges(graphDb.getEdges("eix1", "new"))));
+        Assert.assertTrue(edges(graphDb.getEdges("eix1", "old")).isEmpty());
+        Assert.assertEquals(1, edges(graphDb.query().has("eix1", "new").has("eix1", Compare.NOT_EQUAL, "old").limit(1).edges()).size());
+        created.removeProperty("eix1");
+        graphDb.commit();
+        Assert.assertEquals(Collections.singletonList(existing), edges(graphDb.getEdges("eix1", "new")));
+
+        // Write-behind and bulk loaded edges are indexed as well
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.writeBehind", true);
+        config.setProperty("blueprints.neo4j.writeBehindBatchSize", 10);
+        Neo4jGraph writeBehindGraph = (Neo4jGraph) GraphFactory.open(config);
+        List<Object> unindexed = new ArrayList<>();
+        try {
+            Assert.assertTrue(writeBehindGraph.getIndexedKeys(Edge.class).contains("eix1"));
+            writeBehindGraph.addEdge(null, a, b, "EDGE_INDEXED").setProperty("eix1", "behind");
+            Edge plain = writeBehindGraph.addEdge(null, a, b, "EDGE_INDEXED");
+            writeBehindGraph.commit();
+            // Removing a value an edge never had leaves it without an index node
+            plain.removeProperty("eix1");
+            writeBehindGraph.commit();
+            unindexed.add(plain.getId());
+        } finally {
+            writeBehindGraph.shutdown();
+        }
+        Assert.assertEquals(1, edges(graphDb.getEdges("eix1", "behind")).size());
+        Edge plain = graphDb.addEdge(null, a, b, "EDGE_INDEXED");
+        graphDb.commit();
+        plain.removeProperty("eix1");
+        graphDb.commit();
+        unindexed.add(plain.getId());
+        Assert.assertEquals(0, graphDb.forRead().run("match (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "`) where x.`"
+                + Neo4jGraph.EDGE_INDEX_ID + "` in {ids} return count(x)", Collections.singletonMap("ids", unindexed)).single().get(0).asLong());
+        try (Neo4jBulkLoader loader = new Neo4jBulkLoader(graphDb)) {
+            loader.addVertex(1, null);
+            loader.addVertex(2, null);
+            loader.addEdge(1, 2, "EDGE_INDEXED", Collections.singletonMap("eix1", "bulk"));
+        }
+        Assert.assertEquals(1, edges(graphDb.getEdges("eix1", "bulk")).size());
+
+        // Index nodes are not vertices and go away with their edges
+        for (Vertex vertex : graphDb.getVertices()) {
+            Assert.assertFalse(((Neo4jVertex) vertex).getLabels().contains(Neo4jGraph.EDGE_GLOBAL_INDEX));
+        }
+        long indexNode = graphDb.forRead().run("match (x:`" + Neo4jGraph.EDGE_GLOBAL_INDEX + "`) return id(x) limit 1").single().get(0).asLong();
+        Assert.assertNull(graphDb.getVertex(indexNode));
+        Assert.assertFalse(graphDb.getVertices("eix1", "new").iterator().hasNext());
+        graphDb.removeVertex(a);
+        graphDb.commit();
+        Assert.assertTrue(edges(graphDb.getEdges("eix1", "new")).isEmpty());
+
+        graphDb.dropKeyIndex("eix1", Edge.class);
+        Assert.assertFalse(graphDb.getIndexedKeys(Edge.class).contains("eix1"));
+        Assert.assertEquals(1, edges(graphDb.getEdges("eix1", "bulk")).size());
+    }
+
+    private static List<Edge> edges(Iterable<Edge> edges) {
+        List<Edge> list = new ArrayList<>();
+        edges.forEach(list::add);
+        return list;
+    }
+
+    @Test
+    public void lookupTest() {
+        graphDb.createKeyIndex("lk1", Vertex.class);
+        List<Vertex> vertices = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Vertex vertex = graphDb.addVertex(null);
+            vertex.setProperty("lk1", "lk1v" + i % 3);
+            vertex.setProperty("lk2", i % 2);
+            vertices.add(vertex);
+        }
+        graphDb.commit();
+
+        List<String> statements = new ArrayList<>();
+        Neo4jStatementListener listener = new Neo4jStatementListener() {
+            @Override
+            public void statementCompleted(String statement, Map<String, Object> parameters, long nanos, long rows, Throwable error) {
+                statements.add(statement);
+            }
+        };
+        graphDb.addStatementListener(listener);
+        try {
+            Map<Object, List<Vertex>> byValue = graphDb.getVerticesByValues("lk1", Arrays.asList("lk1v0", "lk1v2", "missing", "lk1v0"));
+            Assert.assertEquals(Arrays.asList("lk1v0", "lk1v2", "missing"), new ArrayList<>(byValue.keySet()));
+            Assert.assertEquals(new HashSet<>(Arrays.asList(vertices.get(0), vertices.get(3))), new HashSet<>(byValue.get("lk1v0")));
+            Assert.assertEquals(2, byValue.get("lk1v2").size());
+            Assert.assertTrue(byValue.get("missing").isEmpty());
+            Assert.assertEquals(1, statements.size());
+            Assert.assertTrue(statements.get(0).contains(":`" + Neo4jGraph.NODE_GLOBAL_INDEX + "`"));
+
+            // Several keys are matched together, by the index when one of them is indexed
+            Map<String, Object> first = new HashMap<>();
+            first.put("lk1", "lk1v1");
+            first.put("lk2", 1);
+            Map<String, Object> second = new HashMap<>();
+            second.put("lk1", "lk1v1");
+            second.put("lk2", 0);
+            Map<Map<String, Object>, List<Vertex>> byProperties = graphDb.getVerticesByProperties(Arrays.asList(first, second));
+            Assert.assertEquals(Collections.singletonList(vertices.get(1)), byProperties.get(first));
+            Assert.assertEquals(Collections.singletonList(vertices.get(4)), byProperties.get(second));
+            Assert.assertEquals(Collections.singletonList(vertices.get(4)), graphDb.getVertices(second));
+        } finally {
+            graphDb.removeStatementListener(listener);
+        }
+        try {
+            graphDb.getVerticesByProperties(Arrays.asList(Collections.singletonMap("lk1", "lk1v1"), Collections.singletonMap("lk2", 1)));
+            Assert.fail("Lookups must share their keys");
+        } catch (IllegalArgumentException expected) {
+        }
+        graphDb.removeVertices(vertices);
+        graphDb.commit();
+    }
+
+    @Test
+    public void autocommitReadTest() {
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.autocommitReads", true);
+        Neo4jGraph readGraph = (Neo4jGraph) GraphFactory.open(config);
+        try {
+            Vertex a = readGraph.addVertex(null);
+            a.setProperty("ac1", "ac1v");
+            Vertex b = readGraph.addVertex(null);
+            readGraph.addEdge(null, a, b, "AUTOCOMMIT");
+            readGraph.commit();
+
+            List<String> statements = new ArrayList<>();
+            List<Integer> transactions = new ArrayList<>();
+            readGraph.addStatementListener(new Neo4jStatementListener() {
+                @Override
+                public void statementCompleted(String statement, Map<String, Object> parameters, long nanos, long rows, Throwable error) {
+                    statements.add(statement);
+                }
+
+                @Override
+                public void transactionCompleted(boolean committed, long nanos, int count) {
+                    transactions.add(count);
+                }
+            });
+
+            // Standalone reads leave no transaction to commit
+            Assert.assertEquals("ac1v", readGraph.getVertex(a.getId()).getProperty("ac1"));
+            Assert.assertEquals(1, readGraph.getVertex(a.getId()).query().direction(Direction.OUT).labels("AUTOCOMMIT").count());
+            Assert.assertEquals(1, readGraph.getVerticesByValues("ac1", Collections.singleton("ac1v")).get("ac1v").size());
+            readGraph.commit();
+            Assert.assertEquals(4, statements.size());
+            Assert.assertTrue(transactions.isEmpty());
+
+            // Once a write is pending, reads join its transaction and see it
+            a.setProperty("ac1", "ac1w");
+            Assert.assertEquals("ac1w", readGraph.getVertex(a.getId()).getProperty("ac1"));
+            readGraph.commit();
+            Assert.assertEquals(Collections.singletonList(2), transactions);
+            Assert.assertEquals("ac1w", readGraph.getVertex(a.getId()).getProperty("ac1"));
+
+            readGraph.removeVertices(Arrays.asList(a, b));
+            readGraph.commit();
+        } finally {
+            readGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void autocommitReadPoolTest() throws Exception {
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.autocommitReads", true);
+        config.setProperty("blueprints.neo4j.threadBoundTransactions", true);
+        config.setProperty("blueprints.neo4j.sessionPoolSize", 4);
+        config.setProperty("blueprints.neo4j.sessionPoolTimeout", 1000);
+        Neo4jGraph readGraph = (Neo4jGraph) GraphFactory.open(config);
+        try {
+            Vertex a = readGraph.addVertex(null);
+            Vertex b = readGraph.addVertex(null);
+            readGraph.addEdge(null, a, b, "AUTOCOMMIT_POOL");
+            readGraph.commit();
+
+            // Read-only threads never commit, so their sessions must return to the pool once their results are read
+            List<Throwable> errors = Collections.synchronizedList(new ArrayList<>());
+            for (int i = 0; i < 12; i++) {
+                Thread reader = new Thread(() -> {
+                    try {
+                        Vertex vertex = readGraph.getVertex(a.getId());
+                        int edges = 0;
+                        for (Edge ignored : vertex.getEdges(Direction.OUT, "AUTOCOMMIT_POOL")) {
+                            edges++;
+                        }
+                        Assert.assertEquals(1, edges);
+                        // A scan left unread gives its session back when closed
+                        CloseableIterable<Vertex> vertices = (CloseableIterable<Vertex>) readGraph.getVertices();
+                        vertices.iterator().next();
+                        vertices.close();
+                        // One left open gives it back once the thread runs its next statement
+                        Assert.assertTrue(vertex.getEdges(Direction.OUT, "AUTOCOMMIT_POOL").iterator().hasNext());
+                        Assert.assertNotNull(readGraph.getVertex(b.getId()));
+                    } catch (Throwable ex) {
+                        errors.add(ex);
+                    }
+                });
+                reader.start();
+                reader.join();
+            }
+            Assert.assertEquals(Collections.emptyList(), errors);
+            Assert.assertNotNull(readGraph.getVertex(a.getId()));
+
+            readGraph.removeVertices(Arrays.asList(a, b));
+            readGraph.commit();
+        } finally {
+            readGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void labelScanTest() {
+        Neo4jVertex typed = (Neo4jVertex) graphDb.addVertex(null);
+        Vertex other = graphDb.addVertex(null);
+        graphDb.commit();
+        List<String> statements = new ArrayList<>();
+        Neo4jStatementListener listener = new Neo4jStatementListener() {
+            @Override
+            public void statementCompleted(String statement, Map<String, Object> parameters, long nanos, long rows, Throwable error) {
+                statements.add(statement);
+            }
+        };
+        graphDb.addStatementListener(listener);
+        try {
+            // The label goes with the property in one statement
+            typed.setProperty(Neo4jGraph.NODE_GLOBAL_LABEL, "LABELSCAN_TYPE");
+            graphDb.commit();
+            Assert.assertEquals(1, statements.size());
+        } finally {
+            graphDb.removeStatementListener(listener);
+        }
+        Assert.assertTrue(typed.getLabels().contains("LABELSCAN_TYPE"));
+        typed.setProperty("labelScanKey", "x");
+        other.setProperty("labelScanKey", "x");
+        graphDb.commit();
+
+        List<Vertex> vertices = new ArrayList<>();
+        graphDb.getVerticesByLabel("LABELSCAN_TYPE").forEach(vertices::add);
+        Assert.assertEquals(Collections.singletonList(typed), vertices);
+        vertices.clear();
+        graphDb.getVertices("LABELSCAN_TYPE", "labelScanKey", "x").forEach(vertices::add);
+        Assert.assertEquals(Collections.singletonList(typed), vertices);
+        Assert.assertFalse(graphDb.getVertices("LABELSCAN_TYPE", "labelScanKey", "y").iterator().hasNext());
+        Assert.assertEquals("LABELSCAN_TYPE", vertices.get(0).getProperty(Neo4jGraph.NODE_GLOBAL_LABEL));
+
+        graphDb.removeVertices(Arrays.asList(typed, other));
+        graphDb.commit();
+    }
+
+    @Test
+    public void bulkRemoveTest() {
+        Vertex hub = graphDb.addVertex(null);
+        for (int i = 0; i < 25; i++) {
+            graphDb.addEdge(null, hub, graphDb.addVertex(null), "PURGE_HUB");
+        }
+        graphDb.addEdge(null, hub, hub, "PURGE_HUB");
+        graphDb.commit();
+
+        List<long[]> progress = new ArrayList<>();
+        Neo4jBulkRemover remover = new Neo4jBulkRemover(graphDb, 10).onProgress((vertices, edges) -> progress.add(new long[]{vertices, edges}));
+        remover.removeVertex(hub);
+        Assert.assertNull(graphDb.getVertex(hub.getId()));
+        // Three batches of edges, the self-loop counted once, then the vertex
+        Assert.assertEquals(4, progress.size());
+        Assert.assertArrayEquals(new long[]{0, 10}, progress.get(0));
+        Assert.assertArrayEquals(new long[]{1, 26}, progress.get(3));
+
+        List<Vertex> kept = new ArrayList<>();
+        List<Vertex> removed = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Neo4jVertex vertex = (Neo4jVertex) graphDb.addVertex(null);
+            vertex.addLabel("PURGE");
+            vertex.setProperty("purgeTenant", i < 5 ? "a" : "b");
+            (i < 5 ? removed : kept).add(vertex);
+        }
+        graphDb.addEdge(null, removed.get(0), kept.get(0), "PURGE_TENANT");
+        graphDb.addEdge(null, removed.get(1), removed.get(2), "PURGE_TENANT");
+        graphDb.commit();
+
+        progress.clear();
+        Assert.assertEquals(5, new Neo4jBulkRemover(graphDb, 2).onProgress((vertices, edges) -> progress.add(new long[]{vertices, edges}))
+                .removeVertices("PURGE", "purgeTenant", "a"));
+        Assert.assertArrayEquals(new long[]{5, 2}, progress.get(progress.size() - 1));
+        for (Vertex vertex : removed) {
+            Assert.assertNull(graphDb.getVertex(vertex.getId()));
+        }
+        for (Vertex vertex : kept) {
+            Assert.assertNotNull(graphDb.getVertex(vertex.getId()));
+        }
+        Assert.assertEquals(0, kept.get(0).query().count());
+
+        Assert.assertEquals(2, new Neo4jBulkRemover(graphDb).removeVertices("purgeTenant", "b"));
+        Assert.assertFalse(graphDb.getVertices("purgeTenant", "b").iterator().hasNext());
+        graphDb.commit();
+    }
+
+    @Test
+    public void snapshotTest() throws Exception {
+        Neo4jVertex a = (Neo4jVertex) graphDb.addVertex(null);
+        a.addLabel("SNAPSHOT");
+        Vertex b = graphDb.addVertex(null);
+        Vertex c = graphDb.addVertex(null);
+        Edge ab = graphDb.addEdge(null, a, b, "SNAPSHOT");
+        graphDb.addEdge(null, a, c, "SNAPSHOT");
+        graphDb.addEdge(null, b, c, "SNAPSHOT_OTHER");
+        graphDb.addEdge(null, a, a, "SNAPSHOT");
+        graphDb.commit();
+
+        Path dir = Files.createTempDirectory("snapshot");
+        Path file = dir.resolve("graph.snapshot");
+        try {
+            SnapshotGraph snapshot = new Neo4jSnapshotExporter(graphDb).snapshot(file);
+            int vertices = 0;
+            for (Vertex ignored : graphDb.getVertices()) {
+                vertices++;
+            }
+            Assert.assertEquals(vertices, snapshot.getVertexCount());
+
+            int index = snapshot.indexOf(a.getLongId());
+            Assert.assertEquals(3, snapshot.outDegree(index));
+            Assert.assertEquals(1, snapshot.inDegree(index));
+            // The only incoming edge is the self-loop
+            Assert.assertEquals(index, snapshot.inNeighbor(index, 0));
+            Assert.assertTrue(snapshot.getLabels(index).contains("SNAPSHOT"));
+
+            Vertex snapshotA = snapshot.getVertex(a.getId());
+            Set<Object> neighbours = new HashSet<>();
+            for (Vertex vertex : snapshotA.getVertices(Direction.OUT, "SNAPSHOT")) {
+                neighbours.add(vertex.getId());
+            }
+            Assert.assertEquals(new HashSet<>(Arrays.asList(a.getId(), b.getId(), c.getId())), neighbours);
+            // The self-loop counts once for both directions, as in the live graph
+            Assert.assertEquals(a.query().direction(Direction.BOTH).labels("SNAPSHOT").count(),
+                    snapshotA.query().direction(Direction.BOTH).labels("SNAPSHOT").count());
+            Assert.assertEquals(3, snapshotA.query().direction(Direction.BOTH).labels("SNAPSHOT").count());
+            Vertex snapshotB = snapshot.getVertex(b.getId());
+            Assert.assertEquals(1, snapshotB.query().direction(Direction.OUT).labels("SNAPSHOT_OTHER").count());
+            Assert.assertEquals(0, snapshotB.query().direction(Direction.OUT).labels("SNAPSHOT").count());
+            Assert.assertEquals(1, snapshotB.query().direction(Direction.IN).count());
+
+            // Edges answer like the live graph
+            Edge snapshotAb = snapshot.getEdge(ab.getId());
+            Assert.assertEquals("SNAPSHOT", snapshotAb.getLabel());
+            Assert.assertEquals(ab.getVertex(Direction.OUT).getId(), snapshotAb.getVertex(Direction.OUT).getId());
+            Assert.assertEquals(ab.getVertex(Direction.IN).getId(), snapshotAb.getVertex(Direction.IN).getId());
+            try {
+                snapshot.addVertex(null);
+                Assert.fail("Snapshots are read-only");
+            } catch (UnsupportedOperationException expected) {
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.delete(dir);
+        }
+        graphDb.removeVertices(Arrays.asList(a, b, c));
+        graphDb.commit();
+    }
+
+    @Test
+    public void multiGetTest() {
+        List<Vertex> created = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            created.add(graphDb.addVertex(null));
+        }
+        Edge e1 = graphDb.addEdge(null, created.get(0), created.get(1), "MULTI");
+        Vertex deleted = graphDb.addVertex(null);
+        Edge deletedEdge = graphDb.addEdge(null, deleted, deleted, "MULTI");
+        graphDb.commit();
+        deleted.remove();
+        graphDb.commit();
+
+        List<Object> ids = Arrays.asList(created.get(2).getId(), deleted.getId(), created.get(0).getId(), created.get(1).getId());
+        List<Vertex> vertices = graphDb.getVertices(ids);
+        Assert.assertEquals(4, vertices.size());
+        Assert.assertEquals(created.get(2).getId(), vertices.get(0).getId());
+        Assert.assertNull(vertices.get(1));
+        Assert.assertEquals(created.get(0).getId(), vertices.get(2).getId());
+        Assert.assertEquals(created.get(1).getId(), vertices.get(3).getId());
+
+        List<Edge> edges = graphDb.getEdges(Arrays.asList(deletedEdge.getId(), e1.getId()));
+        Assert.assertNull(edges.get(0));
+        Assert.assertEquals(e1.getId(), edges.get(1).getId());
+
+        graphDb.removeVertices(created);
+        graphDb.commit();
+        for (Vertex v : graphDb.getVertices(ids)) {
+            Assert.assertNull(v);
+        }
+        Assert.assertNull(graphDb.getEdge(e1.getId()));
+        graphDb.commit();
+    }
+
+    @Test
+    public void prefetchTest() {
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.prefetchAdjacent", true);
+        Neo4jGraph prefetchGraph = (Neo4jGraph) GraphFactory.open(config);
+        try {
+            Vertex v1 = prefetchGraph.addVertex(null);
+            Vertex v2 = prefetchGraph.addVertex(null);
+            v2.setProperty("pf1", "pf1v");
+            prefetchGraph.addEdge(null, v1, v2, "PREFETCH");
+            prefetchGraph.commit();
+
+            Vertex reloaded = prefetchGraph.getVertex(v1.getId());
+            Edge e = reloaded.getEdges(Direction.OUT, "PREFETCH").iterator().next();
+            Neo4jEdge edge = (Neo4jEdge) e;
+            Assert.assertNotNull(edge.endVertex);
+            Assert.assertSame(reloaded, edge.startVertex);
+            Assert.assertEquals("pf1v", e.getVertex(Direction.OUT).getProperty("pf1"));
+            Assert.assertEquals(v1.getId(), e.getVertex(Direction.IN).getId());
+            prefetchGraph.commit();
+        } finally {
+            prefetchGraph.shutdown();
+        }
+    }
+
+    @Test
+    public void threadedTransactionTest() throws Exception {
+        TransactionalGraph first = graphDb.newTransaction();
+        TransactionalGraph second = graphDb.newTransaction();
+        Vertex v1 = first.addVertex(null);
+        v1.setProperty("tt1", "tt1v");
+        Assert.assertFalse(second.getVertices("tt1", "tt1v").iterator().hasNext());
+        first.commit();
+        Assert.assertEquals(v1.getId(), second.getVertices("tt1", "tt1v").iterator().next().getId());
+        second.commit();
+
+        Configuration config = createConfig();
+        config.setProperty("blueprints.neo4j.threadBoundTransactions", true);
+        config.setProperty("blueprints.neo4j.sessionPoolSize", 4);
+        Neo4jGraph threadedGraph = (Neo4jGraph) GraphFactory.open(config);
+        List<Boolean> completed = Collections.synchronizedList(new ArrayList<>());
+        try {
+            List<Thread> threads = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                threads.add(new Thread(() -> {
+                    for (int j = 0; j < 10; j++) {
+                        threadedGraph.addVertex(null).setProperty("tt2", "tt2v");
+                        threadedGraph.commit();
+                    }
+                }));
+            }
+            threads.forEach(Thread::start);
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            int count = 0;
+            for (Vertex v : threadedGraph.getVertices("tt2", "tt2v")) {
+                count++;
+            }
+            Assert.assertEquals(80, count);
+            threadedGraph.commit();
+
+            // A transaction left open by another thread is rolled back on shutdown
+            threadedGraph.addStatementListener(new Neo4jStatementListener() {
+                @Override
+                public void transactionCompleted(boolean committed, long nanos, int statements) {
+                    completed.add(committed);
+                }
+            });
+            Thread abandoning = new Thread(() -> threadedGraph.addVertex(null).setProperty("tt3", "tt3v"));
+            abandoning.start();
+            abandoning.join();
+        } finally {
+            threadedGraph.shutdown();
+        }
+        Assert.assertEquals(Collections.singletonList(false), completed);
+        Assert.assertFalse(graphDb.getVertices("tt3", "tt3v").iterator().hasNext());
+    }
+
     @Test
     public void queryTest() {
         try {
@@ -69,6 +1182,44 @@ public class GraphPerfTest {
         }
     }
 
+    @Test
+    public void vertexQueryTest() {
+        Vertex hub = graphDb.addVertex(null);
+        for (int i = 1; i <= 3; i++) {
+            Vertex spoke = graphDb.addVertex(null);
+            spoke.setProperty("vq1", i);
+            Edge e = hub.addEdge(i < 3 ? "VQ_A" : "VQ_B", spoke);
+            e.setProperty("weight", i);
+        }
+        graphDb.commit();
+
+        Assert.assertEquals(3, hub.query().direction(Direction.OUT).count());
+        Assert.assertEquals(2, hub.query().direction(Direction.OUT).labels("VQ_A").count());
+        Assert.assertEquals(0, hub.query().direction(Direction.IN).count());
+        Assert.assertEquals(2, hub.query().direction(Direction.OUT).has("weight", Compare.GREATER_THAN, 1).count());
+        Assert.assertEquals(1, hub.query().direction(Direction.OUT).interval("weight", 2, 3).count());
+        Assert.assertEquals(1, hub.query().direction(Direction.OUT).limit(1).count());
+        Assert.assertEquals(2, ((List) hub.query().direction(Direction.OUT).hasNot("weight", 1).vertexIds()).size());
+
+        for (Vertex v : hub.query().direction(Direction.OUT).has("weight", 3).vertices()) {
+            Assert.assertEquals(Long.valueOf(3), v.getProperty("vq1"));
+        }
+        for (Edge e : hub.query().direction(Direction.OUT).has("label", "VQ_B").edges()) {
+            Assert.assertEquals("VQ_B", e.getLabel());
+        }
+
+        // Custom predicates are evaluated locally
+        Predicate odd = (first, second) -> first != null && ((Long) first) % 2 == 1;
+        Assert.assertEquals(2, hub.query().direction(Direction.OUT).has("weight", odd, null).count());
+
+        int count = 0;
+        for (Vertex v : graphDb.query().has("vq1", Compare.GREATER_THAN_EQUAL, 2).limit(1).vertices()) {
+            count++;
+        }
+        Assert.assertEquals(1, count);
+        graphDb.commit();
+    }
+
     @Test
     public void sanityCheck() {
         try {
@@ -129,6 +1280,7 @@ public class GraphPerfTest {
 
     @Test
     public void testNeo4j() {
+        // Timings live in the benchmarks module; this checks the same workload for correctness
         int MAXPAIRS = 1000;
         int MAXVERTPROPS = 10;
         int MAXEDGEPROPS = 0;
@@ -137,94 +1289,55 @@ public class GraphPerfTest {
         Vertex lastVertex = null;
         List<Object> vertexKeys = new ArrayList<>(MAXPAIRS);
 
-        try {
-            // Create our vertex pairs, hook them up with an edge
-            long start = System.currentTimeMillis();
-
-            // Create verticies
-            for (int i = 0; i < MAXPAIRS; ++i) {
-                vertex = graphDb.addVertex(null);
+        // Create our vertex pairs, hook them up with an edge
+        for (int i = 0; i < MAXPAIRS; ++i) {
+            vertex = graphDb.addVertex(null);
 
-                for (int j = 0; j < MAXVERTPROPS; ++j) {
-                    vertex.setProperty("prop" + j, j);
-                }
-
-                if (lastVertex != null) {
-                    Edge edge = graphDb.addEdge(null, lastVertex, vertex, "Edge " + i);
-                    for (int j = 0; j < MAXEDGEPROPS; ++j) {
-                        edge.setProperty("p" + j, j);
-                    }
-                }
-
-                lastVertex = vertex;
-                graphDb.commit();
-                vertexKeys.add(vertex.getId());
+            for (int j = 0; j < MAXVERTPROPS; ++j) {
+                vertex.setProperty("prop" + j, j);
             }
 
-            long delta = System.currentTimeMillis() - start;
-            double oneTime = (double) delta / (double) MAXPAIRS;
-
-            System.out.println("Inserted " + MAXPAIRS + " vertex/edge pairs with " +
-                    MAXVERTPROPS + " properties per vertex and " +
-                    MAXEDGEPROPS + " properties per edge in " + delta + " msecs, " +
-                    oneTime + " msecs per instance.");
-
-            start = System.currentTimeMillis();
-            int count = 1;
-            Vertex v = graphDb.getVertex(vertexKeys.get(0));
-
-            Iterable edges;
-
-            while (v != null) {
-                edges = v.getEdges(Direction.OUT, null);
-                Iterator<Edge> iter = edges.iterator();
-
-                if (iter.hasNext()) {
-                    Edge e = (Edge) (edges.iterator().next());
-                    v = e.getVertex(Direction.OUT);
-                    ++count;
-                } else {
-                    v = null;
+            if (lastVertex != null) {
+                Edge edge = graphDb.addEdge(null, lastVertex, vertex, "Edge " + i);
+                for (int j = 0; j < MAXEDGEPROPS; ++j) {
+                    edge.setProperty("p" + j, j);
                 }
             }
 
-            delta = System.currentTimeMillis() - start;
-            oneTime = (double) delta / (double) count;
-            System.out.println("Traversed " + count + " vertex/edge pairs in " +
-                    delta + " msecs, " +
-                    oneTime + " msecs per traversal.");
-
-            start = System.currentTimeMillis();
-            for (Object id : vertexKeys) {
-                v = graphDb.getVertex(id);
-                if (!v.getId().equals(id)) {
-                    System.out.println("Object id " + id + " is missing.");
-                }
+            lastVertex = vertex;
+            graphDb.commit();
+            vertexKeys.add(vertex.getId());
+        }
 
-                graphDb.removeVertex(v);
+        int count = 1;
+        Vertex v = graphDb.getVertex(vertexKeys.get(0));
+        while (v != null) {
+            Iterator<Edge> iter = v.getEdges(Direction.OUT, (String[]) null).iterator();
+            if (iter.hasNext()) {
+                v = iter.next().getVertex(Direction.OUT);
+                Assert.assertEquals(vertexKeys.get(count), v.getId());
+                Assert.assertEquals(Long.valueOf(MAXVERTPROPS - 1), v.getProperty("prop" + (MAXVERTPROPS - 1)));
+                ++count;
+            } else {
+                v = null;
             }
+        }
+        Assert.assertEquals(MAXPAIRS, count);
+        // The same walk as a single statement
+        Neo4jVertex first = (Neo4jVertex) graphDb.getVertex(vertexKeys.get(0));
+        Vertex last = first.traverse().out().times(MAXPAIRS - 1).vertices().iterator().next();
+        Assert.assertEquals(vertexKeys.get(MAXPAIRS - 1), last.getId());
 
-            delta = System.currentTimeMillis() - start;
-            oneTime = (double) delta / (double) MAXPAIRS;
-
-            System.out.println("Fetched and Deleted " + MAXPAIRS + " vertex/edge pairs with " +
-                    MAXVERTPROPS + " properties per vertex and " +
-                    MAXEDGEPROPS + " properties per edge in " + delta + " msecs, " +
-                    oneTime + " msecs per instance.");
+        for (Object id : vertexKeys) {
+            v = graphDb.getVertex(id);
+            Assert.assertEquals(id, v.getId());
+            graphDb.removeVertex(v);
+        }
+        graphDb.commit();
 
-            graphDb.shutdown();
-        } catch (Exception ex) {
-            System.out.println("Caught exception " + ex.toString());
-        } finally {
-//            if (ds != null) {
-//                try {
-//                    JDBCUtils.doUpdateQuery(ds.getConnection(), "delete from TGP_EDGE", null);
-//                    JDBCUtils.doUpdateQuery(ds.getConnection(), "delete from TGP_VERTEX", null);
-//                    ds.close();
-//                } catch (SQLException ex) {
-//                    ex.printStackTrace();
-//                }
-//            }
+        for (Object id : vertexKeys) {
+            Assert.assertNull(graphDb.getVertex(id));
         }
+        graphDb.commit();
     }
 }